@@ -0,0 +1,27 @@
+package batch;
+
+import java.io.IOException;
+
+/**
+ * Command line entry point that produces a dataset of solved mazes without the GUI.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class BatchLauncher {
+    private BatchLauncher() {}
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        BatchOptions options;
+        try {
+            options = BatchOptions.parse(args);
+        }
+        catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(BatchOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+        new MazePipeline(options).run();
+    }
+}
@@ -0,0 +1,148 @@
+package batch;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.zip.Deflater;
+
+/**
+ * Settings for a batch run, read from command line arguments of the form --name value.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class BatchOptions {
+    // Constants
+    public static final String USAGE = "Usage: batch.BatchLauncher [options]\n"
+            + "  --count N        number of mazes to produce (default 1000)\n"
+            + "  --rows N         rows in each maze (default 50)\n"
+            + "  --cols N         columns in each maze (default 50)\n"
+            + "  --out DIR        directory to write to (default mazes)\n"
+            + "  --seed N         seed for the whole dataset (default 0)\n"
+            + "  --generators N   generation threads (default cores - 2)\n"
+            + "  --solvers N      solving threads (default 1)\n"
+            + "  --encoders N     encoding threads, one output file each (default 1)\n"
+            + "  --queue N        capacity of each queue between stages (default 16)\n"
+            + "  --level N        Deflater compression level 0 - 9 (default 6)\n"
+            + "  --report N       seconds between progress reports, 0 for none (default 1)";
+
+    // Fields
+    private long count = 1000;
+    private int rows = 50;
+    private int cols = 50;
+    private Path out = Paths.get("mazes");
+    private long seed = 0;
+    private int generators = Math.max(1, Runtime.getRuntime().availableProcessors() - 2);
+    private int solvers = 1;
+    private int encoders = 1;
+    private int queueCapacity = 16;
+    private int level = 6;
+    private int reportSeconds = 1;
+
+    /**
+     * Reads options from command line arguments, keeping the defaults for any not given.
+     * @param args pairs of --name value
+     * @return the options
+     * @throws IllegalArgumentException if an option is unknown, missing its value or out of range
+     */
+    public static BatchOptions parse(String[] args) {
+        BatchOptions options = new BatchOptions();
+        for (int i = 0; i < args.length; i += 2) {
+            if (i + 1 == args.length) {
+                throw new IllegalArgumentException("Missing value for " + args[i]);
+            }
+            String value = args[i + 1];
+            switch (args[i]) {
+                case "--count": options.count = parseLong(args[i], value, 1); break;
+                case "--rows": options.rows = parseInt(args[i], value, 1); break;
+                case "--cols": options.cols = parseInt(args[i], value, 1); break;
+                case "--out": options.out = Paths.get(value); break;
+                case "--seed": options.seed = parseLong(args[i], value, Long.MIN_VALUE); break;
+                case "--generators": options.generators = parseInt(args[i], value, 1); break;
+                case "--solvers": options.solvers = parseInt(args[i], value, 1); break;
+                case "--encoders": options.encoders = parseInt(args[i], value, 1); break;
+                case "--queue": options.queueCapacity = parseInt(args[i], value, 1); break;
+                case "--level": options.level = parseInt(args[i], value, Deflater.DEFAULT_COMPRESSION); break;
+                case "--report": options.reportSeconds = parseInt(args[i], value, 0); break;
+                default: throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if ((long) options.rows * options.cols > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Mazes of " + options.rows + "x" + options.cols + " are too large");
+        }
+        if (options.level > Deflater.BEST_COMPRESSION) {
+            throw new IllegalArgumentException("--level must be at most " + Deflater.BEST_COMPRESSION);
+        }
+        return options;
+    }
+
+    private static long parseLong(String name, String value, long min) {
+        try {
+            long number = Long.parseLong(value);
+            if (number < min) {
+                throw new IllegalArgumentException(name + " must be at least " + min + ", not " + value);
+            }
+            return number;
+        }
+        catch (NumberFormatException e) {
+            throw new IllegalArgumentException(name + " needs a number, not " + value);
+        }
+    }
+
+    private static int parseInt(String name, String value, int min) {
+        long number = parseLong(name, value, min);
+        if (number > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(name + " is too large: " + value);
+        }
+        return (int) number;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public int getRows() {
+        return rows;
+    }
+
+    public int getCols() {
+        return cols;
+    }
+
+    public Path getOut() {
+        return out;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int getGenerators() {
+        return generators;
+    }
+
+    public int getSolvers() {
+        return solvers;
+    }
+
+    public int getEncoders() {
+        return encoders;
+    }
+
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+
+    public int getLevel() {
+        return level;
+    }
+
+    public int getReportSeconds() {
+        return reportSeconds;
+    }
+
+    @Override
+    public String toString() {
+        return "BatchOptions{" + count + " mazes of " + rows + "x" + cols + " to " + out
+                + ", threads " + generators + "/" + solvers + "/" + encoders + "}";
+    }
+}
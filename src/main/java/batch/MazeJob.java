@@ -0,0 +1,31 @@
+package batch;
+
+import generation.MazeGraph;
+
+/**
+ * One maze on its way through the pipeline. Jobs are recycled once written, so the
+ * graph and path arrays are only allocated for as many mazes as can be in flight.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+final class MazeJob {
+    // Marks the end of the work for the stage that takes it
+    static final MazeJob END = new MazeJob(0);
+
+    // Fields
+    final MazeGraph graph;
+    final int[] path;
+    long id;
+    int pathLength;
+
+    MazeJob(int cells) {
+        graph = new MazeGraph(cells);
+        path = new int[cells];
+    }
+
+    @Override
+    public String toString() {
+        return "MazeJob{" + id + "}";
+    }
+}
@@ -0,0 +1,300 @@
+package batch;
+
+import generation.Cell;
+import generation.MazeGenerator;
+import generation.MazeWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.Deflater;
+
+/**
+ * Generates, solves and writes mazes in three stages running side by side.
+ *
+ * Each stage has its own threads and hands mazes to the next stage through a bounded
+ * queue, so a slow stage holds back the ones before it instead of letting mazes pile up
+ * in memory. Finished jobs go back to a pool and are reused by the generators.
+ *
+ * Every encoder writes its own file, mazes-N.bin, as a sequence of records:
+ *
+ * <pre>
+ * long id          index of the maze in the dataset
+ * int  mazeBytes   length of the maze that follows
+ * ...  maze        in the MazeWriter format
+ * int  pathLength  cells on the solution, from the entrance to the exit
+ * ...  moves       pathLength - 1 moves at 2 bits each (Cell.NORTH - WEST), 4 per byte
+ * </pre>
+ *
+ * Each maze is seeded from the dataset seed and its id, so a dataset comes out the
+ * same whatever the thread counts, although records may be spread across the files in
+ * a different order.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class MazePipeline {
+    // Constants
+    private static final long SEED_STRIDE = 0x9E3779B97F4A7C15L; // Spreads consecutive ids across seeds
+    private static final int MOVES_PER_BYTE = 4;
+    private static final long FAILURE_CHECK_MILLIS = 100;
+
+    // Fields
+    private final BatchOptions options;
+    private final int cells;
+    private final BlockingQueue<MazeJob> free;
+    private final BlockingQueue<MazeJob> generated;
+    private final BlockingQueue<MazeJob> solved;
+    private final int poolSize;
+    private final AtomicLong created = new AtomicLong();
+    private final AtomicLong nextId = new AtomicLong();
+    private final AtomicLong generatedCount = new AtomicLong();
+    private final AtomicLong solvedCount = new AtomicLong();
+    private final AtomicLong encodedCount = new AtomicLong();
+    private final AtomicLong bytesWritten = new AtomicLong();
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+    private final List<Thread> workers = new CopyOnWriteArrayList<>();
+
+    /**
+     * Creates a pipeline for the given settings.
+     * @param options what to produce and how many threads to use
+     */
+    public MazePipeline(BatchOptions options) {
+        this.options = options;
+        this.cells = options.getRows() * options.getCols();
+
+        // Enough jobs to fill both queues while every thread holds one
+        poolSize = 2 * options.getQueueCapacity() + options.getGenerators() + options.getSolvers()
+                + options.getEncoders();
+        free = new ArrayBlockingQueue<>(poolSize);
+        generated = new ArrayBlockingQueue<>(options.getQueueCapacity());
+        solved = new ArrayBlockingQueue<>(options.getQueueCapacity());
+    }
+
+    /**
+     * Produces the whole dataset, reporting progress on System.out as it goes.
+     * @throws IOException if the output cannot be written
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public void run() throws IOException, InterruptedException {
+        Files.createDirectories(options.getOut());
+        long start = System.nanoTime();
+
+        List<Thread> generators = startStage("generate", options.getGenerators(), index -> generate());
+        List<Thread> solvers = startStage("solve", options.getSolvers(), index -> solve());
+        List<Thread> encoders = startStage("encode", options.getEncoders(), this::encode);
+        Thread reporter = startReporter(start);
+
+        // Shut the stages down in order, each one once the stage feeding it is done
+        try {
+            join(generators);
+            endStage(generated, options.getSolvers());
+            join(solvers);
+            endStage(solved, options.getEncoders());
+            join(encoders);
+        }
+        finally {
+            for (Thread worker : workers) {
+                worker.interrupt();
+            }
+            reporter.interrupt();
+        }
+
+        Throwable error = failure.get();
+        if (error instanceof UncheckedIOException) {
+            throw ((UncheckedIOException) error).getCause();
+        }
+        if (error != null) {
+            throw new IOException("Batch failed", error);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Wrote %d mazes (%d bytes) to %s in %.1fs, %.0f mazes/s%n", encodedCount.get(),
+                bytesWritten.get(), options.getOut(), seconds, encodedCount.get() / seconds);
+    }
+
+    // Work done by one thread of a stage
+    private interface StageWork {
+        void run(int index) throws IOException, InterruptedException;
+    }
+
+    private List<Thread> startStage(String name, int threads, StageWork work) {
+        List<Thread> stage = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            int index = i;
+            Thread thread = new Thread(() -> {
+                try {
+                    work.run(index);
+                }
+                catch (InterruptedException e) {
+                    // Stopped because another worker failed
+                }
+                catch (IOException e) {
+                    fail(new UncheckedIOException(e));
+                }
+                catch (RuntimeException | Error e) {
+                    fail(e);
+                }
+            }, name + "-" + i);
+            stage.add(thread);
+            thread.start();
+            workers.add(thread);
+        }
+        if (failure.get() != null) {
+            // Another stage failed before these threads were listed for fail() to stop
+            stage.forEach(Thread::interrupt);
+        }
+        return stage;
+    }
+
+    // Records the first failure and stops every worker
+    private void fail(Throwable error) {
+        if (failure.compareAndSet(null, error)) {
+            for (Thread worker : workers) {
+                worker.interrupt();
+            }
+        }
+    }
+
+    private static void join(List<Thread> threads) throws InterruptedException {
+        for (Thread thread : threads) {
+            thread.join();
+        }
+    }
+
+    // Tells each thread of the next stage to stop, unless a failure already stopped them
+    private void endStage(BlockingQueue<MazeJob> queue, int threads) throws InterruptedException {
+        for (int i = 0; i < threads; i++) {
+            while (!queue.offer(MazeJob.END, FAILURE_CHECK_MILLIS, TimeUnit.MILLISECONDS)) {
+                if (failure.get() != null) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void generate() throws InterruptedException {
+        Random random = new Random();
+        for (long id = nextId.getAndIncrement(); id < options.getCount(); id = nextId.getAndIncrement()) {
+            MazeJob job = free.poll();
+            if (job == null) {
+                job = created.incrementAndGet() <= poolSize ? new MazeJob(cells) : free.take();
+            }
+            job.id = id;
+            random.setSeed(options.getSeed() + id * SEED_STRIDE);
+            MazeGenerator.generate(options.getRows(), options.getCols(), job.graph, random);
+            generated.put(job);
+            generatedCount.incrementAndGet();
+        }
+    }
+
+    private void solve() throws InterruptedException {
+        for (MazeJob job = generated.take(); job != MazeJob.END; job = generated.take()) {
+            job.pathLength = job.graph.solve(job.path);
+            solved.put(job);
+            solvedCount.incrementAndGet();
+        }
+    }
+
+    private void encode(int index) throws IOException, InterruptedException {
+        Path file = options.getOut().resolve("mazes-" + index + ".bin");
+        ByteArrayOutputStream maze = new ByteArrayOutputStream();
+        byte[] moves = new byte[(cells + MOVES_PER_BYTE - 1) / MOVES_PER_BYTE];
+
+        // One Deflater for every record, reset between them rather than allocated again
+        Deflater deflater = new Deflater(options.getLevel());
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+            for (MazeJob job = solved.take(); job != MazeJob.END; job = solved.take()) {
+                maze.reset();
+                deflater.reset();
+                MazeWriter writer = new MazeWriter(maze, options.getRows(), options.getCols(), deflater);
+                writer.write(job.graph);
+                writer.finish();
+                int moveBytes = packMoves(job.path, job.pathLength, moves);
+
+                out.writeLong(job.id);
+                out.writeInt(maze.size());
+                maze.writeTo(out);
+                out.writeInt(job.pathLength);
+                out.write(moves, 0, moveBytes);
+                bytesWritten.addAndGet(Long.BYTES + 2 * Integer.BYTES + maze.size() + moveBytes);
+
+                free.put(job);
+                encodedCount.incrementAndGet();
+            }
+        }
+        finally {
+            deflater.end();
+        }
+    }
+
+    // Packs the direction of each step along a path, returning the number of bytes used
+    private int packMoves(int[] path, int length, byte[] moves) {
+        int cols = options.getCols();
+        int bytes = (Math.max(length - 1, 0) + MOVES_PER_BYTE - 1) / MOVES_PER_BYTE;
+        for (int i = 0; i < bytes; i++) {
+            moves[i] = 0;
+        }
+        for (int step = 0; step < length - 1; step++) {
+            int difference = path[step + 1] - path[step];
+            int direction;
+            if (difference == cols) {
+                direction = Cell.SOUTH; // Checked before east, a single column steps south by 1
+            }
+            else if (difference == -cols) {
+                direction = Cell.NORTH;
+            }
+            else {
+                direction = difference == 1 ? Cell.EAST : Cell.WEST;
+            }
+            moves[step / MOVES_PER_BYTE] |= direction << (step % MOVES_PER_BYTE * 2);
+        }
+        return bytes;
+    }
+
+    // Prints the throughput of each stage and how full the queues between them are
+    private Thread startReporter(long start) {
+        Thread reporter = new Thread(() -> {
+            long[] last = new long[3];
+            long interval = options.getReportSeconds() * 1000L;
+            try {
+                while (interval > 0) {
+                    Thread.sleep(interval);
+                    long[] counts = {generatedCount.get(), solvedCount.get(), encodedCount.get()};
+                    double seconds = interval / 1000.0;
+                    System.out.printf("[%6.1fs] generate %d (%.0f/s) > queue %d/%d > solve %d (%.0f/s) > queue %d/%d"
+                                    + " > encode %d (%.0f/s) of %d%n",
+                            (System.nanoTime() - start) / 1e9,
+                            counts[0], (counts[0] - last[0]) / seconds, generated.size(), options.getQueueCapacity(),
+                            counts[1], (counts[1] - last[1]) / seconds, solved.size(), options.getQueueCapacity(),
+                            counts[2], (counts[2] - last[2]) / seconds, options.getCount());
+                    last = counts;
+                }
+            }
+            catch (InterruptedException e) {
+                // Finished
+            }
+        }, "report");
+        reporter.setDaemon(true);
+        reporter.start();
+        return reporter;
+    }
+
+    @Override
+    public String toString() {
+        return "MazePipeline{" + options + "}";
+    }
+}
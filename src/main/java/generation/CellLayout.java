@@ -0,0 +1,182 @@
+package generation;
+
+import java.util.Arrays;
+
+/**
+ * Maps the row-major cell indices used by the rest of the program (index = row * cols + col)
+ * to the order cells are stored in memory inside a MazeGraph.
+ *
+ * In row-major order every north or south step jumps a full row in memory, which thrashes
+ * the cache on wide mazes. The Morton (Z-order) and Hilbert orders store cells along a
+ * space-filling curve instead, so cells close together in the maze are usually close
+ * together in memory. Curves are laid over the next power of two square and then ranked,
+ * so mazes of any size get a dense numbering from 0 to cells - 1.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public final class CellLayout {
+    /**
+     * The orders cells can be stored in.
+     */
+    public enum Order {
+        ROW_MAJOR,
+        MORTON,
+        HILBERT
+    }
+
+    // Constants
+    public static final int MAX_CURVE_SIDE = 1 << 15; // Keeps curve positions within 30 bits
+
+    // Fields
+    private final Order order;
+    private final int rows;
+    private final int cols;
+    private final int[] toInternal; // null when row-major
+    private final int[] toRowMajor;
+
+    private CellLayout(Order order, int rows, int cols, int[] toInternal, int[] toRowMajor) {
+        this.order = order;
+        this.rows = rows;
+        this.cols = cols;
+        this.toInternal = toInternal;
+        this.toRowMajor = toRowMajor;
+    }
+
+    /**
+     * Creates a layout for a maze of the given size.
+     * @param order the order to store cells in
+     * @param rows number of rows in the maze
+     * @param cols number of columns in the maze
+     * @return the layout
+     */
+    public static CellLayout of(Order order, int rows, int cols) {
+        long cellCount = (long) rows * cols;
+        if (rows <= 0 || cols <= 0 || cellCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid maze dimensions " + rows + "x" + cols);
+        }
+        if (order == Order.ROW_MAJOR) {
+            return new CellLayout(order, rows, cols, null, null);
+        }
+        if (rows > MAX_CURVE_SIDE || cols > MAX_CURVE_SIDE) {
+            throw new IllegalArgumentException(order + " layout supports at most " + MAX_CURVE_SIDE
+                    + " rows and columns, not " + rows + "x" + cols);
+        }
+
+        // Sort the cells by their position on the curve, keeping the row-major index
+        // in the low bits so a primitive sort does all the work
+        int side = Integer.highestOneBit(Math.max(rows, cols) - 1) << 1;
+        long[] keys = new long[(int) cellCount];
+        for (int row = 0; row < rows; row++) {
+            for (int col = 0; col < cols; col++) {
+                int cell = row * cols + col;
+                long curve = order == Order.MORTON ? morton(row, col) : hilbert(side, row, col);
+                keys[cell] = curve << 32 | cell;
+            }
+        }
+        Arrays.sort(keys);
+
+        int[] toInternal = new int[keys.length];
+        int[] toRowMajor = new int[keys.length];
+        for (int internal = 0; internal < keys.length; internal++) {
+            int cell = (int) keys[internal];
+            toRowMajor[internal] = cell;
+            toInternal[cell] = internal;
+        }
+        return new CellLayout(order, rows, cols, toInternal, toRowMajor);
+    }
+
+    // Interleaves the bits of row and col
+    private static long morton(int row, int col) {
+        return spread(row) << 1 | spread(col);
+    }
+
+    // Spreads the 16 low bits of value out to every other bit
+    private static long spread(int value) {
+        long bits = value & 0xFFFFL;
+        bits = (bits | bits << 8) & 0x00FF00FFL;
+        bits = (bits | bits << 4) & 0x0F0F0F0FL;
+        bits = (bits | bits << 2) & 0x33333333L;
+        bits = (bits | bits << 1) & 0x55555555L;
+        return bits;
+    }
+
+    // Distance along the Hilbert curve filling a side x side square
+    private static long hilbert(int side, int row, int col) {
+        long distance = 0;
+        int x = col;
+        int y = row;
+        for (int half = side / 2; half > 0; half /= 2) {
+            int rx = (x & half) > 0 ? 1 : 0;
+            int ry = (y & half) > 0 ? 1 : 0;
+            distance += (long) half * half * ((3 * rx) ^ ry);
+
+            // Rotate the quadrant so the curve stays continuous
+            if (ry == 0) {
+                if (rx == 1) {
+                    x = side - 1 - x;
+                    y = side - 1 - y;
+                }
+                int swap = x;
+                x = y;
+                y = swap;
+            }
+        }
+        return distance;
+    }
+
+    /**
+     * Returns where a cell is stored in memory.
+     * @param cell a row-major cell index
+     * @return the internal index of the cell
+     */
+    public int toInternal(int cell) {
+        return toInternal == null ? cell : toInternal[cell];
+    }
+
+    /**
+     * Returns the cell stored at an internal index.
+     * @param internal an internal index
+     * @return the row-major index of the cell
+     */
+    public int toRowMajor(int internal) {
+        return toRowMajor == null ? internal : toRowMajor[internal];
+    }
+
+    /**
+     * Returns the order cells are stored in.
+     * @return the order
+     */
+    public Order getOrder() {
+        return order;
+    }
+
+    /**
+     * Returns the number of rows in the maze.
+     * @return number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of columns in the maze.
+     * @return number of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Returns the number of cells in the maze.
+     * @return rows * cols
+     */
+    public int getCellCount() {
+        return rows * cols;
+    }
+
+    @Override
+    public String toString() {
+        return "CellLayout{" + order + " " + rows + "x" + cols + "}";
+    }
+}
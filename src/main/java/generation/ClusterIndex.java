@@ -0,0 +1,409 @@
+package generation;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Precomputed index for answering many shortest-path queries on one large rectangular
+ * maze, in the style of Hierarchical Path-Finding A* (HPA*).
+ *
+ * The grid is cut into square clusters. Every cell with a passage into another cluster
+ * is an entrance, and the distance between each pair of entrances of a cluster, going
+ * only through that cluster, is cached. A query links its two cells to the entrances of
+ * their clusters, runs A* over the much smaller graph of entrances and then fills in
+ * the cells between consecutive entrances with a search of a single cluster. Since
+ * every passage between clusters is an entrance, the paths found are true shortest
+ * paths (fewest cells), the same length as ShortestPathSolver finds.
+ *
+ * Clusters are indexed in parallel on the common fork/join pool. When walls change,
+ * update() re-indexes only the clusters around the changed cell. The cached distances
+ * take about 4 bytes per cell. Queries may run on many threads at once, but not while
+ * the index is being updated.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class ClusterIndex {
+    // Constants
+    public static final int DEFAULT_CLUSTER_SIZE = 16;
+    public static final int MAX_CLUSTER_SIZE = 255; // Distances inside a cluster must fit in a char
+    private static final char UNREACHABLE = Character.MAX_VALUE;
+    private static final long UNREACHED = Long.MAX_VALUE;
+    private static final int NONE = -1;
+
+    // The entrances of one cluster and the distances between them
+    private static final class Cluster {
+        private final int firstRow;
+        private final int firstCol;
+        private final int height;
+        private final int width;
+        private final int[] entrances; // Row-major cells, in increasing order
+        private final char[] distances; // Upper triangle of the entrance distance matrix
+
+        private Cluster(int firstRow, int firstCol, int height, int width, int[] entrances, char[] distances) {
+            this.firstRow = firstRow;
+            this.firstCol = firstCol;
+            this.height = height;
+            this.width = width;
+            this.entrances = entrances;
+            this.distances = distances;
+        }
+
+        private int distance(int first, int second) {
+            if (first == second) {
+                return 0;
+            }
+            int low = Math.min(first, second);
+            int high = Math.max(first, second);
+            char distance = distances[triangle(low, high, entrances.length)];
+            return distance == UNREACHABLE ? NONE : distance;
+        }
+    }
+
+    // Fields
+    private final MazeGraph graph;
+    private final int rows;
+    private final int cols;
+    private final int clusterSize;
+    private final int clusterRows;
+    private final int clusterCols;
+    private final Cluster[] clusters;
+    private final int[] firstNodes; // Number of the first entrance of each cluster, then the total
+
+    /**
+     * Indexes a maze with clusters of the default size.
+     * @param graph the maze to index
+     * @param rows number of rows in the maze
+     * @param cols number of columns in the maze
+     */
+    public ClusterIndex(MazeGraph graph, int rows, int cols) {
+        this(graph, rows, cols, DEFAULT_CLUSTER_SIZE);
+    }
+
+    /**
+     * Indexes a maze. Bigger clusters have fewer entrances to search through per cell
+     * but take longer to index and to search inside.
+     * @param graph the maze to index
+     * @param rows number of rows in the maze
+     * @param cols number of columns in the maze
+     * @param clusterSize number of rows and columns in each cluster, from 1 to MAX_CLUSTER_SIZE
+     */
+    public ClusterIndex(MazeGraph graph, int rows, int cols, int clusterSize) {
+        if (rows <= 0 || cols <= 0 || (long) rows * cols != graph.getVertexCount()) {
+            throw new IllegalArgumentException("A " + rows + "x" + cols + " maze cannot have "
+                    + graph.getVertexCount() + " cells");
+        }
+        if (clusterSize < 1 || clusterSize > MAX_CLUSTER_SIZE) {
+            throw new IllegalArgumentException("Cluster size must be from 1 to " + MAX_CLUSTER_SIZE + ", not "
+                    + clusterSize);
+        }
+        this.graph = graph;
+        this.rows = rows;
+        this.cols = cols;
+        this.clusterSize = clusterSize;
+        this.clusterRows = (rows + clusterSize - 1) / clusterSize;
+        this.clusterCols = (cols + clusterSize - 1) / clusterSize;
+        this.clusters = new Cluster[clusterRows * clusterCols];
+        this.firstNodes = new int[clusters.length + 1];
+
+        Arrays.parallelSetAll(clusters, this::index);
+        number();
+    }
+
+    /**
+     * Re-indexes the clusters whose entrances or distances can change when passages are
+     * added to or removed from a cell. Call it for both cells of each changed passage.
+     * @param cell the row-major cell whose walls changed
+     */
+    public void update(int cell) {
+        Objects.checkIndex(cell, rows * cols);
+        int row = cell / cols;
+        int col = cell % cols;
+        int[][] around = {{row, col}, {row - 1, col}, {row, col + 1}, {row + 1, col}, {row, col - 1}};
+        for (int[] neighbor : around) {
+            if (neighbor[0] >= 0 && neighbor[0] < rows && neighbor[1] >= 0 && neighbor[1] < cols) {
+                int cluster = (neighbor[0] / clusterSize) * clusterCols + neighbor[1] / clusterSize;
+                clusters[cluster] = index(cluster);
+            }
+        }
+        number();
+    }
+
+    /**
+     * Finds a shortest path between two cells.
+     * @param source the cell to start from
+     * @param target the cell to finish at
+     * @param path array of at least getVertexCount() entries, filled with the cells on
+     *             the path from source to target
+     * @return the number of cells on the path, or 0 if target cannot be reached
+     */
+    public int route(int source, int target, int[] path) {
+        Objects.checkIndex(source, rows * cols);
+        Objects.checkIndex(target, rows * cols);
+        Cluster from = clusters[clusterOf(source)];
+        Cluster to = clusters[clusterOf(target)];
+
+        // Link the two cells to the entrances of their clusters
+        int[] sourceDistances = entranceDistances(from, source);
+        int[] targetDistances = entranceDistances(to, target);
+        int direct = NONE;
+        if (from == to) {
+            direct = search(from, target)[local(from, source)];
+        }
+
+        int nodeCount = firstNodes[clusters.length];
+        int start = nodeCount;
+        int goal = nodeCount + 1;
+        ScratchBuffers scratch = ScratchBuffers.current();
+        long[] steps = scratch.distances(nodeCount + 2);
+        int[] parents = scratch.parents(nodeCount + 2);
+        RadixHeap open = scratch.radixHeap();
+        Arrays.fill(steps, 0, nodeCount + 2, UNREACHED);
+        int targetRow = target / cols;
+        int targetCol = target % cols;
+        steps[start] = 0;
+        parents[start] = NONE;
+        open.push(manhattan(source, targetRow, targetCol), start);
+
+        // A* over the entrances, guided by the Manhattan distance to the target
+        while (!open.isEmpty()) {
+            int node = open.pop();
+            if (node == goal) {
+                return refine(parents, start, goal, source, target, path);
+            }
+            long step = steps[node];
+            int cell = node == start ? source : cellOf(node);
+            if (open.lastKey() > step + manhattan(cell, targetRow, targetCol)) {
+                continue; // Found a shorter way here after this entry was pushed
+            }
+
+            if (node == start) {
+                for (int i = 0; i < sourceDistances.length; i++) {
+                    relax(steps, parents, open, node, firstNodes[clusterOf(source)] + i, step + sourceDistances[i],
+                            sourceDistances[i] != NONE, targetRow, targetCol);
+                }
+                relax(steps, parents, open, node, goal, step + direct, direct != NONE, targetRow, targetCol);
+                continue;
+            }
+            int clusterNumber = clusterOf(cell);
+            Cluster cluster = clusters[clusterNumber];
+            int entrance = node - firstNodes[clusterNumber];
+            for (int other = 0; other < cluster.entrances.length; other++) {
+                int distance = cluster.distance(entrance, other);
+                relax(steps, parents, open, node, firstNodes[clusterNumber] + other, step + distance,
+                        other != entrance && distance != NONE, targetRow, targetCol);
+            }
+            if (cluster == to) {
+                relax(steps, parents, open, node, goal, step + targetDistances[entrance],
+                        targetDistances[entrance] != NONE, targetRow, targetCol);
+            }
+            // Passages out of the cluster lead to entrances of the neighbouring clusters
+            for (int slot = graph.firstSlot(graph.internal(cell)); slot != NONE; slot = graph.nextSlot(slot)) {
+                int neighbor = graph.external(graph.slotTarget(slot));
+                int neighborCluster = clusterOf(neighbor);
+                if (neighborCluster != clusterNumber) {
+                    int index = Arrays.binarySearch(clusters[neighborCluster].entrances, neighbor);
+                    relax(steps, parents, open, node, firstNodes[neighborCluster] + index, step + 1, true,
+                            targetRow, targetCol);
+                }
+            }
+        }
+        return 0;
+    }
+
+    private void relax(long[] steps, int[] parents, RadixHeap open, int node, int next, long step, boolean linked,
+                       int targetRow, int targetCol) {
+        if (linked && step < steps[next]) {
+            steps[next] = step;
+            parents[next] = node;
+            // The goal is the only node past the entrances that is ever reached again
+            long estimate = next >= firstNodes[clusters.length] ? step
+                    : step + manhattan(cellOf(next), targetRow, targetCol);
+            open.push(estimate, next);
+        }
+    }
+
+    // Turns the chain of entrances A* found into the cells between them
+    private int refine(int[] parents, int start, int goal, int source, int target, int[] path) {
+        int hops = 0;
+        for (int node = goal; node != NONE; node = parents[node]) {
+            hops++;
+        }
+        int[] waypoints = new int[hops];
+        for (int node = goal; node != NONE; node = parents[node]) {
+            waypoints[--hops] = node == start ? source : node == goal ? target : cellOf(node);
+        }
+
+        int length = 0;
+        path[length++] = source;
+        for (int i = 1; i < waypoints.length; i++) {
+            int from = waypoints[i - 1];
+            int to = waypoints[i];
+            if (from == to) {
+                continue; // The source or target is an entrance itself
+            }
+            int clusterNumber = clusterOf(from);
+            if (clusterNumber != clusterOf(to)) {
+                path[length++] = to; // A passage between clusters
+                continue;
+            }
+            // Walk downhill from the entrance towards the next one through the cluster
+            Cluster cluster = clusters[clusterNumber];
+            int[] distances = search(cluster, to);
+            int current = from;
+            while (current != to) {
+                int remaining = distances[local(cluster, current)];
+                for (int slot = graph.firstSlot(graph.internal(current)); slot != NONE;
+                     slot = graph.nextSlot(slot)) {
+                    int neighbor = graph.external(graph.slotTarget(slot));
+                    int index = local(cluster, neighbor);
+                    if (index != NONE && distances[index] == remaining - 1) {
+                        current = neighbor;
+                        break;
+                    }
+                }
+                path[length++] = current;
+            }
+        }
+        return length;
+    }
+
+    // Finds the entrances of a cluster and the distances between them
+    private Cluster index(int clusterNumber) {
+        int firstRow = (clusterNumber / clusterCols) * clusterSize;
+        int firstCol = (clusterNumber % clusterCols) * clusterSize;
+        int height = Math.min(clusterSize, rows - firstRow);
+        int width = Math.min(clusterSize, cols - firstCol);
+        Cluster bounds = new Cluster(firstRow, firstCol, height, width, new int[0], new char[0]);
+
+        int[] entrances = new int[2 * (height + width)];
+        int count = 0;
+        for (int row = firstRow; row < firstRow + height; row++) {
+            for (int col = firstCol; col < firstCol + width; col++) {
+                // Only border cells can have passages out of the cluster
+                if (row != firstRow && col != firstCol && row != firstRow + height - 1
+                        && col != firstCol + width - 1) {
+                    continue;
+                }
+                int cell = row * cols + col;
+                for (int slot = graph.firstSlot(graph.internal(cell)); slot != NONE; slot = graph.nextSlot(slot)) {
+                    if (local(bounds, graph.external(graph.slotTarget(slot))) == NONE) {
+                        entrances[count++] = cell;
+                        break;
+                    }
+                }
+            }
+        }
+        entrances = Arrays.copyOf(entrances, count);
+
+        char[] distances = new char[count * (count - 1) / 2];
+        for (int i = 0; i < count - 1; i++) {
+            int[] reached = search(bounds, entrances[i]);
+            for (int j = i + 1; j < count; j++) {
+                int distance = reached[local(bounds, entrances[j])];
+                distances[triangle(i, j, count)] = distance == NONE ? UNREACHABLE : (char) distance;
+            }
+        }
+        return new Cluster(firstRow, firstCol, height, width, entrances, distances);
+    }
+
+    // Numbers the entrances of every cluster one after another
+    private void number() {
+        for (int i = 0; i < clusters.length; i++) {
+            firstNodes[i + 1] = firstNodes[i] + clusters[i].entrances.length;
+        }
+    }
+
+    private int[] entranceDistances(Cluster cluster, int cell) {
+        int[] reached = search(cluster, cell);
+        int[] distances = new int[cluster.entrances.length];
+        for (int i = 0; i < distances.length; i++) {
+            distances[i] = reached[local(cluster, cluster.entrances[i])];
+        }
+        return distances;
+    }
+
+    // Breadth-First Search from a cell that stays inside its cluster. Returns the distance
+    // to each cell of the cluster by local index, NONE where it cannot be reached
+    private int[] search(Cluster cluster, int cell) {
+        int size = cluster.height * cluster.width;
+        ScratchBuffers scratch = ScratchBuffers.current();
+        int[] queue = scratch.stack(size);
+        int[] distances = scratch.cells(size);
+        Arrays.fill(distances, 0, size, NONE);
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = cell;
+        distances[local(cluster, cell)] = 0;
+        while (head < tail) {
+            int current = queue[head++];
+            int distance = distances[local(cluster, current)] + 1;
+            for (int slot = graph.firstSlot(graph.internal(current)); slot != NONE; slot = graph.nextSlot(slot)) {
+                int neighbor = graph.external(graph.slotTarget(slot));
+                int index = local(cluster, neighbor);
+                if (index != NONE && distances[index] == NONE) {
+                    distances[index] = distance;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+        return distances;
+    }
+
+    // Index of a cell within a cluster, or NONE if the cell is outside it
+    private int local(Cluster cluster, int cell) {
+        int row = cell / cols - cluster.firstRow;
+        int col = cell % cols - cluster.firstCol;
+        if (row < 0 || row >= cluster.height || col < 0 || col >= cluster.width) {
+            return NONE;
+        }
+        return row * cluster.width + col;
+    }
+
+    private int clusterOf(int cell) {
+        return (cell / cols / clusterSize) * clusterCols + cell % cols / clusterSize;
+    }
+
+    // Cell of an entrance, found from its number by binary search for the first cluster
+    // whose entrances end after it (clusters without entrances are skipped over)
+    private int cellOf(int node) {
+        int low = 0;
+        int high = clusters.length - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (firstNodes[middle + 1] > node) {
+                high = middle;
+            }
+            else {
+                low = middle + 1;
+            }
+        }
+        return clusters[low].entrances[node - firstNodes[low]];
+    }
+
+    private long manhattan(int cell, int targetRow, int targetCol) {
+        return Math.abs(cell / cols - targetRow) + Math.abs(cell % cols - targetCol);
+    }
+
+    private static int triangle(int low, int high, int count) {
+        return low * count - low * (low + 1) / 2 + high - low - 1;
+    }
+
+    public int getClusterSize() {
+        return clusterSize;
+    }
+
+    /**
+     * Returns the number of entrances, which is the size of the graph searched by each query.
+     * @return the number of cells with a passage into another cluster
+     */
+    public int getEntranceCount() {
+        return firstNodes[clusters.length];
+    }
+
+    @Override
+    public String toString() {
+        return "ClusterIndex{" + clusters.length + " clusters of " + clusterSize + "x" + clusterSize + ", "
+                + getEntranceCount() + " entrances}";
+    }
+}
@@ -0,0 +1,90 @@
+package generation;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Union-find that many threads can use at once without locks.
+ *
+ * Parents live in an AtomicIntegerArray and every change is a compare-and-set, so a
+ * union that loses a race simply looks up the roots again and retries. Roots are linked
+ * by a fixed pseudo-random priority instead of by height, which keeps trees shallow
+ * without a second array that would have to change atomically with the first.
+ * find() halves paths as it goes; a failed halving step is harmless.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+final class ConcurrentDisjointSets {
+    // Constants
+    private static final int PRIORITY_MULTIPLIER = 0x9E3779B9; // Odd, so every element gets its own priority
+
+    // Fields
+    private final AtomicIntegerArray parents;
+
+    /**
+     * Creates a new data structure with every element in its own set.
+     * @param numSets the number of sets
+     */
+    ConcurrentDisjointSets(int numSets) {
+        parents = new AtomicIntegerArray(numSets);
+        for (int i = 0; i < numSets; i++) {
+            parents.set(i, i);
+        }
+    }
+
+    int size() {
+        return parents.length();
+    }
+
+    /**
+     * Finds the representative of the set an element belongs to. The answer can change
+     * while other threads are joining sets.
+     * @param element the element to search from
+     * @return the representative of a set
+     */
+    int find(int element) {
+        int current = element;
+        while (true) {
+            int parent = parents.get(current);
+            if (parent == current) {
+                return current;
+            }
+            int grandParent = parents.get(parent);
+            if (grandParent == parent) {
+                return parent;
+            }
+            parents.compareAndSet(current, parent, grandParent);
+            current = grandParent;
+        }
+    }
+
+    /**
+     * Joins together two sets given an element from each set.
+     * @param first the first element
+     * @param second the second element
+     * @return true if this call joined the sets, or false if they were already joined
+     */
+    boolean union(int first, int second) {
+        while (true) {
+            int firstRoot = find(first);
+            int secondRoot = find(second);
+            if (firstRoot == secondRoot) {
+                return false;
+            }
+            // Always hang the root with the lower priority under the other one
+            if (Integer.compareUnsigned(firstRoot * PRIORITY_MULTIPLIER, secondRoot * PRIORITY_MULTIPLIER) > 0) {
+                int swap = firstRoot;
+                firstRoot = secondRoot;
+                secondRoot = swap;
+            }
+            if (parents.compareAndSet(firstRoot, firstRoot, secondRoot)) {
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "ConcurrentDisjointSets{" + parents.length() + " sets}";
+    }
+}
@@ -0,0 +1,111 @@
+package generation;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Finds the cheapest path through a maze whose cells or edges have costs, using
+ * Dijkstra's algorithm.
+ *
+ * Walking from one cell to the next costs the cost of the edge between them (see
+ * MazeGraph.setEdgeCost()) plus the cost of the cell being entered, if cell costs are
+ * given. The queue is a RadixHeap of primitive entries rather than a binary heap of
+ * boxed ones, which keeps the search close to linear on mazes of millions of cells.
+ * The search buffers come from the per-thread pool, so repeated solves allocate only
+ * the returned path.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class DijkstraSolver {
+    // Constants
+    private static final long UNREACHED = Long.MAX_VALUE;
+    private static final int NONE = -1;
+
+    private DijkstraSolver() {}
+
+    /**
+     * Finds the cheapest path from the entrance (cell 0) to the exit (the last cell).
+     * @param graph the maze to solve
+     * @param cellCosts cost of entering each row-major cell, at least 0, or null to only
+     *                  count edge costs
+     * @return the cheapest path, empty if the exit cannot be reached
+     */
+    public static WeightedPath solve(MazeGraph graph, int[] cellCosts) {
+        return solve(graph, cellCosts, 0, graph.getVertexCount() - 1);
+    }
+
+    /**
+     * Finds the cheapest path between two cells. The cost of the first cell is not
+     * counted, since the path starts inside it.
+     * @param graph the maze to solve
+     * @param cellCosts cost of entering each row-major cell, at least 0, or null to only
+     *                  count edge costs
+     * @param source the cell to start from
+     * @param target the cell to finish at
+     * @return the cheapest path, empty if target cannot be reached
+     */
+    public static WeightedPath solve(MazeGraph graph, int[] cellCosts, int source, int target) {
+        int vertexCount = graph.getVertexCount();
+        Objects.checkIndex(source, vertexCount);
+        Objects.checkIndex(target, vertexCount);
+        if (cellCosts != null && cellCosts.length < vertexCount) {
+            throw new IllegalArgumentException("Need a cost for each of the " + vertexCount + " cells, not "
+                    + cellCosts.length);
+        }
+
+        ScratchBuffers scratch = ScratchBuffers.current();
+        long[] distances = scratch.distances(vertexCount);
+        int[] parents = scratch.parents(vertexCount);
+        RadixHeap heap = scratch.radixHeap();
+        Arrays.fill(distances, 0, vertexCount, UNREACHED);
+
+        int from = graph.internal(source);
+        int to = graph.internal(target);
+        distances[from] = 0;
+        parents[from] = NONE;
+        heap.push(0, from);
+
+        while (!heap.isEmpty()) {
+            int current = heap.pop();
+            long distance = heap.lastKey();
+            // Cells are pushed again when a cheaper way is found, skip the old entries
+            if (distance > distances[current]) {
+                continue;
+            }
+            if (current == to) {
+                break;
+            }
+
+            for (int slot = graph.firstSlot(current); slot != NONE; slot = graph.nextSlot(slot)) {
+                int neighbor = graph.slotTarget(slot);
+                long candidate = distance + graph.slotCost(slot);
+                if (cellCosts != null) {
+                    int cellCost = cellCosts[graph.external(neighbor)];
+                    if (cellCost < 0) {
+                        throw new IllegalArgumentException("Cell costs cannot be negative: " + cellCost);
+                    }
+                    candidate += cellCost;
+                }
+                if (candidate < distances[neighbor]) {
+                    distances[neighbor] = candidate;
+                    parents[neighbor] = current;
+                    heap.push(candidate, neighbor);
+                }
+            }
+        }
+
+        if (distances[to] == UNREACHED) {
+            return new WeightedPath(new int[0], 0);
+        }
+        int length = 0;
+        for (int current = to; current != NONE; current = parents[current]) {
+            length++;
+        }
+        int[] cells = new int[length];
+        for (int current = to, i = length - 1; current != NONE; current = parents[current], i--) {
+            cells[i] = graph.external(current);
+        }
+        return new WeightedPath(cells, distances[to]);
+    }
+}
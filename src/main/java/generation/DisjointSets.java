@@ -1,6 +1,7 @@
 package generation;
 
 import java.util.Arrays;
+import java.util.Objects;
 
 /**
  * Implements the union-find algorithm for tracking and merging disjoint sets.
@@ -11,6 +12,7 @@ import java.util.Arrays;
 public class DisjointSets
 {
     private int[] sets;
+    private int size;
 
     /**
      * Creates a new data structure with the requested number of sets.
@@ -20,9 +22,36 @@ public class DisjointSets
     public DisjointSets(int numSets)
     {
         sets = new int[numSets];
+        reset(numSets);
+    }
+
+    /**
+     * Returns every element to its own set, resizing to the requested number of sets.
+     * The backing array is reused when it is already large enough, so resetting to
+     * the same (or a smaller) size allocates nothing.
+     *
+     * @param numSets the number of sets
+     */
+    public void reset(int numSets)
+    {
+        if (sets.length < numSets)
+        {
+            sets = new int[numSets];
+        }
+        size = numSets;
 
         //each tree is off height 1 (-1) to generateMaze with
-        Arrays.fill(sets, -1);
+        Arrays.fill(sets, 0, numSets, -1);
+    }
+
+    /**
+     * Returns the number of elements currently tracked.
+     *
+     * @return the number of elements
+     */
+    public int size()
+    {
+        return size;
     }
 
     /**
@@ -32,12 +61,18 @@ public class DisjointSets
      * @return the representative of a set
      */
     public int find(int element)
+    {
+        //elements past the current size may be left over from a larger reset
+        return root(Objects.checkIndex(element, size));
+    }
+
+    private int root(int element)
     {
         if (sets[element] < 0)
         {
             return element;
         }
-        return sets[element] = find(sets[element]);
+        return sets[element] = root(sets[element]);
     }
 
     /**
@@ -89,6 +124,6 @@ public class DisjointSets
     @Override
     public String toString()
     {
-        return "DisjointSets{ " + Arrays.toString(sets) + '}';
+        return "DisjointSets{ " + Arrays.toString(Arrays.copyOf(sets, size)) + '}';
     }
 }
@@ -0,0 +1,150 @@
+package generation;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * The nearest of several exits to every cell of a maze, for levels with many spawn
+ * points and many ways out.
+ *
+ * All the exits are put in the queue of a single Breadth-First Search, so the search
+ * grows out from all of them at once and reaches each cell first from its nearest exit.
+ * One pass over the maze labels every cell with that exit, its distance and the next
+ * cell on the way there, instead of one search per spawn point and exit. Cells the same
+ * distance from two exits go to the one listed first. The result is kept in three
+ * primitive arrays, so later changes to the maze do not affect it.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class ExitMap {
+    // Constants
+    private static final int NONE = -1;
+
+    // Fields, indexed by row-major cell
+    private final int[] exits;
+    private final int[] labels;    // Index into exits of the nearest exit to each cell
+    private final int[] distances; // Steps from each cell to its nearest exit
+    private final int[] nextSteps; // Cell after each one on the way to its exit
+
+    private ExitMap(int[] exits, int[] labels, int[] distances, int[] nextSteps) {
+        this.exits = exits;
+        this.labels = labels;
+        this.distances = distances;
+        this.nextSteps = nextSteps;
+    }
+
+    /**
+     * Finds the nearest exit to every cell of a maze.
+     * @param graph the maze to search
+     * @param exits the exit cells, at least one
+     * @return the nearest exit, distance and way out of every cell
+     */
+    public static ExitMap build(MazeGraph graph, int... exits) {
+        int vertexCount = graph.getVertexCount();
+        if (exits.length == 0) {
+            throw new IllegalArgumentException("Need at least one exit");
+        }
+        int[] labels = new int[vertexCount];
+        int[] distances = new int[vertexCount];
+        int[] nextSteps = new int[vertexCount];
+        Arrays.fill(labels, NONE);
+
+        // Every exit starts in the queue, the same exit listed twice is only queued once
+        int[] queue = ScratchBuffers.current().stack(vertexCount);
+        int head = 0;
+        int tail = 0;
+        for (int i = 0; i < exits.length; i++) {
+            int exit = Objects.checkIndex(exits[i], vertexCount);
+            if (labels[exit] == NONE) {
+                labels[exit] = i;
+                nextSteps[exit] = NONE;
+                queue[tail++] = graph.internal(exit);
+            }
+        }
+
+        // The queue holds internal cells, the results are kept row-major
+        while (head < tail) {
+            int vertex = queue[head++];
+            int current = graph.external(vertex);
+            for (int slot = graph.firstSlot(vertex); slot != NONE; slot = graph.nextSlot(slot)) {
+                int neighbor = graph.external(graph.slotTarget(slot));
+                if (labels[neighbor] == NONE) {
+                    labels[neighbor] = labels[current];
+                    distances[neighbor] = distances[current] + 1;
+                    nextSteps[neighbor] = current;
+                    queue[tail++] = graph.slotTarget(slot);
+                }
+            }
+        }
+        return new ExitMap(exits.clone(), labels, distances, nextSteps);
+    }
+
+    /**
+     * Returns the exit closest to a cell.
+     * @param cell a row-major cell
+     * @return the nearest exit cell, or -1 if no exit can be reached
+     */
+    public int getNearestExit(int cell) {
+        int label = labels[Objects.checkIndex(cell, labels.length)];
+        return label == NONE ? NONE : exits[label];
+    }
+
+    /**
+     * Returns which exit is closest to a cell, as a label for colouring the regions
+     * around each exit.
+     * @param cell a row-major cell
+     * @return the position of the nearest exit in the list given to build(), or -1 if
+     * no exit can be reached
+     */
+    public int getExitIndex(int cell) {
+        return labels[Objects.checkIndex(cell, labels.length)];
+    }
+
+    /**
+     * Returns how far a cell is from its nearest exit.
+     * @param cell a row-major cell
+     * @return the number of steps to the exit, or -1 if no exit can be reached
+     */
+    public int getDistance(int cell) {
+        Objects.checkIndex(cell, labels.length);
+        return labels[cell] == NONE ? NONE : distances[cell];
+    }
+
+    /**
+     * Finds the way from a cell to its nearest exit.
+     * @param source the cell to start from
+     * @param path array of at least getDistance(source) + 1 entries, filled with the
+     *             cells from source to the exit
+     * @return the number of cells on the path, or 0 if no exit can be reached
+     */
+    public int route(int source, int[] path) {
+        if (getDistance(source) == NONE) {
+            return 0;
+        }
+        int length = 0;
+        for (int current = source; current != NONE; current = nextSteps[current]) {
+            path[length++] = current;
+        }
+        return length;
+    }
+
+    /**
+     * Finds the way from each of several cells, such as spawn points, to its nearest exit.
+     * @param sources the cells to start from
+     * @return the path from each source to its nearest exit, empty if none can be reached
+     */
+    public int[][] routes(int... sources) {
+        int[][] paths = new int[sources.length][];
+        for (int i = 0; i < sources.length; i++) {
+            paths[i] = new int[getDistance(sources[i]) + 1];
+            route(sources[i], paths[i]);
+        }
+        return paths;
+    }
+
+    @Override
+    public String toString() {
+        return "ExitMap{" + exits.length + " exits, " + labels.length + " cells}";
+    }
+}
@@ -0,0 +1,213 @@
+package generation;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.LongConsumer;
+
+/**
+ * Solvers that walk a WallGrid from the entrance (north of cell 0) to the exit (south
+ * of the last cell) with almost no memory of their own, for mazes too big to search
+ * with the solvers in MazeGraph.
+ *
+ * followWall() keeps a hand on the wall to its right and needs nothing but its position
+ * and heading. Since the entrance and the exit are both on the outer border, it always
+ * gets out, but its walk includes every dead end it passes. tremaux() marks each
+ * passage as it walks through it, in a bit-packed side file of 4 bits per cell, and
+ * afterwards the passages walked exactly once are the path. Both read the maze one
+ * cell at a time, close to the last cell read, so a mapped maze is paged in mostly in
+ * order. Both work on mazes with loops as well as perfect ones.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class LowMemorySolver {
+    // Constants
+    private static final int DIRECTIONS = 4;
+    private static final int CELLS_PER_BYTE = 2; // Two 2-bit marks (north and west passages) per cell
+    private static final int UNMARKED = 0;
+    private static final int ONCE = 1;
+    private static final int TWICE = 2;
+    private static final int NONE = -1;
+
+    private LowMemorySolver() {}
+
+    /**
+     * Walks through the maze keeping the right hand on a wall.
+     * @param grid the maze to solve
+     * @param walk told about every cell walked into, starting with cell 0, including
+     *             the dead ends entered and walked back out of
+     * @return the number of steps taken to the exit, or -1 if the exit cannot be reached
+     */
+    public static long followWall(WallGrid grid, LongConsumer walk) {
+        long target = grid.getCellCount() - 1;
+        long cell = 0;
+        int heading = Cell.SOUTH; // Walked in through the north wall
+        walk.accept(cell);
+        int firstMove = NONE;
+        long steps = 0;
+
+        while (cell != target) {
+            // Right, straight on, left, then back the way it came
+            int direction = (heading + 1) % DIRECTIONS;
+            while (!canMove(grid, cell, direction)) {
+                direction = (direction + DIRECTIONS - 1) % DIRECTIONS;
+                if (direction == (heading + 1) % DIRECTIONS) {
+                    return -1; // A cell with no doors at all
+                }
+            }
+            // The walk goes round a cycle of moves, so it is lost once a move repeats
+            if (cell == 0) {
+                if (direction == firstMove) {
+                    return -1;
+                }
+                if (firstMove == NONE) {
+                    firstMove = direction;
+                }
+            }
+            cell = grid.neighbor(cell, direction);
+            heading = direction;
+            walk.accept(cell);
+            steps++;
+        }
+        return steps;
+    }
+
+    /**
+     * Finds the path through the maze with Tremaux's algorithm, keeping the marks in a
+     * temporary file that is deleted afterwards.
+     * @param grid the maze to solve
+     * @param path told about every cell on the path, from the entrance to the exit
+     * @return the number of cells on the path, or 0 if the exit cannot be reached
+     * @throws IOException if the side file cannot be created
+     */
+    public static long tremaux(WallGrid grid, LongConsumer path) throws IOException {
+        Path marks = Files.createTempFile("maze-marks", ".bin");
+        try {
+            return tremaux(grid, marks, path);
+        }
+        finally {
+            try {
+                Files.deleteIfExists(marks);
+            }
+            catch (IOException e) {
+                marks.toFile().deleteOnExit(); // Some systems cannot delete a file still mapped
+            }
+        }
+    }
+
+    /**
+     * Finds the path through the maze with Tremaux's algorithm.
+     * @param grid the maze to solve
+     * @param marksFile where to keep the marks, replacing any file already there
+     * @param path told about every cell on the path, from the entrance to the exit
+     * @return the number of cells on the path, or 0 if the exit cannot be reached
+     * @throws IOException if the side file cannot be created
+     */
+    public static long tremaux(WallGrid grid, Path marksFile, LongConsumer path) throws IOException {
+        long bytes = (grid.getCellCount() + CELLS_PER_BYTE - 1) / CELLS_PER_BYTE;
+        FileChannel channel = FileChannel.open(marksFile, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try (MappedBuffer marks = new MappedBuffer(channel, FileChannel.MapMode.READ_WRITE, 0, bytes)) {
+            return tremaux(grid, marks, path);
+        }
+    }
+
+    private static long tremaux(WallGrid grid, MappedBuffer marks, LongConsumer path) {
+        long target = grid.getCellCount() - 1;
+        long cell = 0;
+        int cameFrom = NONE; // Direction of the passage just walked through, from this cell
+
+        while (cell != target) {
+            int direction = NONE;
+            if (cameFrom != NONE && mark(grid, marks, cell, cameFrom) == ONCE
+                    && isVisited(grid, marks, cell, cameFrom)) {
+                direction = cameFrom; // Walked into a loop, turn straight back
+            }
+            else {
+                // Prefer a new passage, then the one marked once, which leads back
+                int once = NONE;
+                for (int d = 0; d < DIRECTIONS && direction == NONE; d++) {
+                    if (d == cameFrom && mark(grid, marks, cell, d) != ONCE || !canMove(grid, cell, d)) {
+                        continue;
+                    }
+                    int mark = mark(grid, marks, cell, d);
+                    if (mark == UNMARKED) {
+                        direction = d;
+                    }
+                    else if (mark == ONCE && once == NONE) {
+                        once = d;
+                    }
+                }
+                if (direction == NONE) {
+                    direction = once;
+                }
+                if (direction == NONE) {
+                    return 0; // Every passage walked twice, back at the entrance
+                }
+            }
+            addMark(grid, marks, cell, direction);
+            cell = grid.neighbor(cell, direction);
+            cameFrom = (direction + 2) % DIRECTIONS;
+        }
+
+        // The passages walked through once lead from the entrance to the exit
+        long length = 1;
+        path.accept(0);
+        cell = 0;
+        cameFrom = NONE;
+        while (cell != target) {
+            int direction = 0;
+            while (direction == cameFrom || !canMove(grid, cell, direction)
+                    || mark(grid, marks, cell, direction) != ONCE) {
+                direction++;
+            }
+            cell = grid.neighbor(cell, direction);
+            cameFrom = (direction + 2) % DIRECTIONS;
+            path.accept(cell);
+            length++;
+        }
+        return length;
+    }
+
+    private static boolean canMove(WallGrid grid, long cell, int direction) {
+        return grid.neighbor(cell, direction) != -1 && grid.isOpen(cell, direction);
+    }
+
+    // Whether any passage of a cell other than the one given has been walked through
+    private static boolean isVisited(WallGrid grid, MappedBuffer marks, long cell, int except) {
+        for (int d = 0; d < DIRECTIONS; d++) {
+            if (d != except && canMove(grid, cell, d) && mark(grid, marks, cell, d) != UNMARKED) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Each cell keeps the marks of its north and west passages, like the walls
+    private static int mark(WallGrid grid, MappedBuffer marks, long cell, int direction) {
+        long owner = owner(grid, cell, direction);
+        int shift = shift(owner, direction);
+        return (marks.getByte(owner / CELLS_PER_BYTE) >> shift) & 3;
+    }
+
+    private static void addMark(WallGrid grid, MappedBuffer marks, long cell, int direction) {
+        long owner = owner(grid, cell, direction);
+        int shift = shift(owner, direction);
+        long offset = owner / CELLS_PER_BYTE;
+        int packed = marks.getByte(offset);
+        int mark = Math.min(((packed >> shift) & 3) + 1, TWICE);
+        marks.putByte(offset, (byte) (packed & ~(3 << shift) | mark << shift));
+    }
+
+    private static long owner(WallGrid grid, long cell, int direction) {
+        return direction == Cell.SOUTH || direction == Cell.EAST ? grid.neighbor(cell, direction) : cell;
+    }
+
+    private static int shift(long owner, int direction) {
+        int passage = direction == Cell.NORTH || direction == Cell.SOUTH ? 0 : 2;
+        return (int) (owner % CELLS_PER_BYTE) * 4 + passage;
+    }
+}
@@ -0,0 +1,80 @@
+package generation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Block of a file mapped into memory and addressed by long byte offsets, so it can be
+ * far bigger than the heap or even than physical memory: the operating system pages it
+ * in and out as it is used.
+ *
+ * A single mapping is limited to 2^31 bytes, so the block is mapped in segments like
+ * OffHeapBuffer. Closing the buffer closes the file; the mappings stay valid until they
+ * are garbage collected.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+final class MappedBuffer implements Closeable {
+    // Constants
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+
+    // Fields
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final long size;
+
+    /**
+     * Maps part of an open file, growing the file first if it is writable and too short.
+     * @param channel the file, which the buffer closes when it is closed
+     * @param mode FileChannel.MapMode.READ_ONLY or READ_WRITE
+     * @param offset position of the block in the file
+     * @param size number of bytes
+     * @throws IOException if the file cannot be mapped
+     */
+    MappedBuffer(FileChannel channel, FileChannel.MapMode mode, long offset, long size) throws IOException {
+        this.channel = channel;
+        this.size = size;
+        int segmentCount = (int) ((size + SEGMENT_MASK) >>> SEGMENT_BITS);
+        segments = new MappedByteBuffer[Math.max(segmentCount, 1)];
+        for (int i = 0; i < segments.length; i++) {
+            long start = (long) i << SEGMENT_BITS;
+            long segmentSize = Math.min(size - start, 1L << SEGMENT_BITS);
+            segments[i] = channel.map(mode, offset + start, segmentSize);
+        }
+    }
+
+    long size() {
+        return size;
+    }
+
+    byte getByte(long offset) {
+        return segments[(int) (offset >>> SEGMENT_BITS)].get((int) (offset & SEGMENT_MASK));
+    }
+
+    void putByte(long offset, byte value) {
+        segments[(int) (offset >>> SEGMENT_BITS)].put((int) (offset & SEGMENT_MASK), value);
+    }
+
+    /**
+     * Writes any changes through to the file.
+     */
+    void force() {
+        for (MappedByteBuffer segment : segments) {
+            segment.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    @Override
+    public String toString() {
+        return "MappedBuffer{" + size + " bytes}";
+    }
+}
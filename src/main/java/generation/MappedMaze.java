@@ -0,0 +1,226 @@
+package generation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static generation.MazeWriter.CELLS_PER_BYTE;
+import static generation.MazeWriter.MAPPED_MAGIC;
+import static generation.MazeWriter.MAPPED_VERSION;
+import static generation.MazeWriter.NORTH_BIT;
+import static generation.MazeWriter.WEST_BIT;
+
+/**
+ * A rectangular maze kept in a memory-mapped file, so it can be solved without reading
+ * it into memory and can be larger than RAM.
+ *
+ * The file is a 16 byte header (MazeWriter.MAPPED_MAGIC, MAPPED_VERSION, rows and
+ * cols as big-endian ints) followed by the walls in the same layout as OffHeapMaze:
+ * 2 bits per row-major cell for its north and west doors, 4 cells per byte. The magic
+ * differs from the MazeWriter stream format, so neither reader accepts the other's files. Looking at a cell touches only
+ * the bytes of that cell and the ones after it and one row below, so solvers that walk
+ * the maze read the file in mostly sequential runs.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class MappedMaze implements WallGrid, Closeable {
+    // Constants
+    private static final int HEADER_BYTES = 16;
+
+    // Fields
+    private final int rows;
+    private final int cols;
+    private final long cellCount;
+    private final MappedBuffer walls;
+
+    private MappedMaze(int rows, int cols, MappedBuffer walls) {
+        this.rows = rows;
+        this.cols = cols;
+        this.cellCount = (long) rows * cols;
+        this.walls = walls;
+    }
+
+    /**
+     * Creates a maze file with every wall standing, replacing any file already there.
+     * @param file where to store the maze
+     * @param rows number of rows in the maze
+     * @param cols number of columns in the maze
+     * @return the maze, open for changes
+     * @throws IOException if the file cannot be created
+     */
+    public static MappedMaze create(Path file, int rows, int cols) throws IOException {
+        if (rows <= 0 || cols <= 0) {
+            throw new IllegalArgumentException("Invalid maze dimensions " + rows + "x" + cols);
+        }
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            header.putInt(MAPPED_MAGIC).putInt(MAPPED_VERSION).putInt(rows).putInt(cols).flip();
+            while (header.hasRemaining()) {
+                channel.write(header);
+            }
+            // Mapping past the end grows the file with zeros, which are closed walls
+            MappedBuffer walls = new MappedBuffer(channel, FileChannel.MapMode.READ_WRITE, HEADER_BYTES,
+                    wallBytes((long) rows * cols));
+            return new MappedMaze(rows, cols, walls);
+        }
+        catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Writes a copy of another maze to a file, one row after another.
+     * @param grid the maze to copy
+     * @param file where to store the copy
+     * @return the copy, open for changes
+     * @throws IOException if the file cannot be written
+     */
+    public static MappedMaze copyOf(WallGrid grid, Path file) throws IOException {
+        MappedMaze copy = create(file, grid.getRows(), grid.getCols());
+        for (long offset = 0; offset < copy.walls.size(); offset++) {
+            int packed = 0;
+            for (int i = 0; i < CELLS_PER_BYTE; i++) {
+                long cell = offset * CELLS_PER_BYTE + i;
+                if (cell < copy.cellCount) {
+                    int bits = (grid.isOpen(cell, Cell.NORTH) ? NORTH_BIT : 0)
+                            | (grid.isOpen(cell, Cell.WEST) ? WEST_BIT : 0);
+                    packed |= bits << 2 * i;
+                }
+            }
+            copy.walls.putByte(offset, (byte) packed);
+        }
+        return copy;
+    }
+
+    /**
+     * Opens a maze file for reading.
+     * @param file a file written by create() or copyOf()
+     * @return the maze, which cannot be changed
+     * @throws IOException if the file cannot be read or is not a maze file
+     */
+    public static MappedMaze open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header, header.position()) > 0) {
+                // Keep reading until the header is complete or the file ends
+            }
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt() != MAPPED_MAGIC
+                    || header.getInt() != MAPPED_VERSION) {
+                throw new IOException(file + " is not a mapped maze file");
+            }
+            int rows = header.getInt();
+            int cols = header.getInt();
+            long bytes = wallBytes((long) rows * cols);
+            if (rows <= 0 || cols <= 0 || channel.size() < HEADER_BYTES + bytes) {
+                throw new IOException(file + " is too short for a " + rows + "x" + cols + " maze");
+            }
+            MappedBuffer walls = new MappedBuffer(channel, FileChannel.MapMode.READ_ONLY, HEADER_BYTES, bytes);
+            return new MappedMaze(rows, cols, walls);
+        }
+        catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the size of the file that holds a maze of the given size.
+     * @param rows number of rows in the maze
+     * @param cols number of columns in the maze
+     * @return number of bytes
+     */
+    public static long requiredBytes(int rows, int cols) {
+        return HEADER_BYTES + wallBytes((long) rows * cols);
+    }
+
+    private static long wallBytes(long cellCount) {
+        return (cellCount + CELLS_PER_BYTE - 1) / CELLS_PER_BYTE;
+    }
+
+    @Override
+    public int getRows() {
+        return rows;
+    }
+
+    @Override
+    public int getCols() {
+        return cols;
+    }
+
+    @Override
+    public long getCellCount() {
+        return cellCount;
+    }
+
+    @Override
+    public boolean isOpen(long cell, int direction) {
+        switch (direction) {
+            case Cell.NORTH:
+                return (bits(cell) & NORTH_BIT) != 0;
+            case Cell.WEST:
+                return (bits(cell) & WEST_BIT) != 0;
+            case Cell.SOUTH:
+                return cell + cols < cellCount && (bits(cell + cols) & NORTH_BIT) != 0;
+            case Cell.EAST:
+                return (cell + 1) % cols != 0 && (bits(cell + 1) & WEST_BIT) != 0;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Knocks down a wall between a cell and its neighbour. Fails if the maze was opened
+     * for reading only.
+     * @param cell a cell index
+     * @param direction Cell.NORTH, EAST, SOUTH or WEST, not towards the outer border
+     */
+    public void openWall(long cell, int direction) {
+        if (neighbor(cell, direction) == -1) {
+            throw new IllegalArgumentException("Cell " + cell + " has no neighbour in direction " + direction);
+        }
+        switch (direction) {
+            case Cell.NORTH: setBit(cell, NORTH_BIT); break;
+            case Cell.WEST: setBit(cell, WEST_BIT); break;
+            case Cell.SOUTH: setBit(cell + cols, NORTH_BIT); break;
+            case Cell.EAST: setBit(cell + 1, WEST_BIT); break;
+            default: break;
+        }
+    }
+
+    private int bits(long cell) {
+        int shift = (int) (cell % CELLS_PER_BYTE) * 2;
+        return (walls.getByte(cell / CELLS_PER_BYTE) >> shift) & (NORTH_BIT | WEST_BIT);
+    }
+
+    private void setBit(long cell, int bit) {
+        long offset = cell / CELLS_PER_BYTE;
+        int shift = (int) (cell % CELLS_PER_BYTE) * 2;
+        walls.putByte(offset, (byte) (walls.getByte(offset) | bit << shift));
+    }
+
+    /**
+     * Writes any changes through to the file.
+     */
+    public void force() {
+        walls.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        walls.close();
+    }
+
+    @Override
+    public String toString() {
+        return "MappedMaze{" + rows + "x" + cols + "}";
+    }
+}
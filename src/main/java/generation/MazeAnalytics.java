@@ -0,0 +1,232 @@
+package generation;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Grades a generated maze in a single linear pass over its cells.
+ *
+ * The cells are split into row ranges that are counted in parallel on the common
+ * fork/join pool, while the calling thread finds the solution path. Each range counts
+ * its dead ends (one door) and junctions (three or more doors), and walks the corridors
+ * (runs of cells with exactly two doors) that start at a cell it owns. The ranges are
+ * over the stored cell order, which only matches the rows for row-major graphs, but
+ * every cell is still counted exactly once.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class MazeAnalytics {
+    // Constants
+    private static final int MIN_CELLS_PER_TASK = 1 << 16;
+    private static final int INITIAL_CORRIDOR_LENGTH = 64;
+
+    // Fields
+    private final int cellCount;
+    private final long deadEnds;
+    private final long junctions;
+    private final long[] corridorLengths;
+    private final int solutionLength;
+
+    private MazeAnalytics(int cellCount, RangeStats stats, int solutionLength) {
+        this.cellCount = cellCount;
+        this.deadEnds = stats.deadEnds;
+        this.junctions = stats.junctions;
+        this.corridorLengths = Arrays.copyOf(stats.corridorLengths, stats.longestCorridor + 1);
+        this.solutionLength = solutionLength;
+    }
+
+    /**
+     * Analyzes a maze from its entrance at cell 0 to its exit at the last cell.
+     * @param graph the maze to grade
+     * @param rows number of rows in the maze
+     * @param cols number of columns in the maze
+     * @return the statistics of the maze
+     */
+    public static MazeAnalytics analyze(MazeGraph graph, int rows, int cols) {
+        int cellCount = graph.getVertexCount();
+        if ((long) rows * cols != cellCount) {
+            throw new IllegalArgumentException("A " + rows + "x" + cols + " maze cannot have "
+                    + cellCount + " cells");
+        }
+        int rowsPerTask = Math.max(1, MIN_CELLS_PER_TASK / cols);
+
+        // Count the cells on the pool while this thread finds the solution
+        ForkJoinTask<RangeStats> counting = ForkJoinPool.commonPool()
+                .submit(new RangeTask(graph, cols, 0, rows, rowsPerTask));
+        int solutionLength = solutionLength(graph, cellCount - 1);
+        return new MazeAnalytics(cellCount, counting.join(), solutionLength);
+    }
+
+    // Number of cells on the path from cell 0 to target, or 0 if there is no path
+    private static int solutionLength(MazeGraph graph, int target) {
+        int[] parents = graph.bfsParents(graph.internal(0), graph.internal(target));
+        if (parents == null) {
+            return 0;
+        }
+        int length = 0;
+        for (int current = graph.internal(target); current != -1; current = parents[current]) {
+            length++;
+        }
+        return length;
+    }
+
+    /**
+     * Returns the number of cells with a single door.
+     * @return the number of dead ends
+     */
+    public long getDeadEnds() {
+        return deadEnds;
+    }
+
+    /**
+     * Returns the number of cells with three or more doors.
+     * @return the number of junctions
+     */
+    public long getJunctions() {
+        return junctions;
+    }
+
+    /**
+     * Returns how many corridors there are of each length, where a corridor is a run
+     * of cells with exactly two doors between two cells that are not.
+     * @return an array where index i holds the number of corridors i cells long
+     */
+    public long[] getCorridorLengths() {
+        return corridorLengths.clone();
+    }
+
+    /**
+     * Returns the number of cells on the path from the entrance to the exit.
+     * @return the solution length, or 0 if the maze cannot be solved
+     */
+    public int getSolutionLength() {
+        return solutionLength;
+    }
+
+    /**
+     * Returns the share of the maze a solver has to walk through.
+     * @return the fraction of cells on the solution path, from 0 - 1
+     */
+    public double getSolutionFraction() {
+        return (double) solutionLength / cellCount;
+    }
+
+    // Counts for one range of rows, merged as the tasks join
+    private static class RangeStats {
+        private long deadEnds;
+        private long junctions;
+        private long[] corridorLengths = new long[INITIAL_CORRIDOR_LENGTH];
+        private int longestCorridor;
+
+        private void addCorridor(int length) {
+            ensureLength(length);
+            corridorLengths[length]++;
+        }
+
+        private void ensureLength(int length) {
+            if (length >= corridorLengths.length) {
+                corridorLengths = Arrays.copyOf(corridorLengths, Math.max(length + 1, corridorLengths.length * 2));
+            }
+            longestCorridor = Math.max(longestCorridor, length);
+        }
+
+        private RangeStats merge(RangeStats other) {
+            deadEnds += other.deadEnds;
+            junctions += other.junctions;
+            ensureLength(other.longestCorridor);
+            for (int length = 1; length <= other.longestCorridor; length++) {
+                corridorLengths[length] += other.corridorLengths[length];
+            }
+            return this;
+        }
+    }
+
+    // Splits the rows in half until the range is small enough to count directly
+    private static class RangeTask extends RecursiveTask<RangeStats> {
+        private static final long serialVersionUID = 1L;
+
+        private final MazeGraph graph;
+        private final int cols;
+        private final int firstRow;
+        private final int lastRow;
+        private final int rowsPerTask;
+
+        private RangeTask(MazeGraph graph, int cols, int firstRow, int lastRow, int rowsPerTask) {
+            this.graph = graph;
+            this.cols = cols;
+            this.firstRow = firstRow;
+            this.lastRow = lastRow;
+            this.rowsPerTask = rowsPerTask;
+        }
+
+        @Override
+        protected RangeStats compute() {
+            if (lastRow - firstRow <= rowsPerTask) {
+                return count(firstRow * cols, lastRow * cols);
+            }
+            int middle = (firstRow + lastRow) >>> 1;
+            RangeTask top = new RangeTask(graph, cols, firstRow, middle, rowsPerTask);
+            RangeTask bottom = new RangeTask(graph, cols, middle, lastRow, rowsPerTask);
+            top.fork();
+            RangeStats bottomStats = bottom.compute();
+            return top.join().merge(bottomStats);
+        }
+
+        private RangeStats count(int firstCell, int lastCell) {
+            RangeStats stats = new RangeStats();
+            for (int cell = firstCell; cell < lastCell; cell++) {
+                int degree = graph.degree(cell);
+                if (degree == 0 || degree == 2) {
+                    continue; // A cell with no doors is neither a dead end nor on a corridor
+                }
+                if (degree == 1) {
+                    stats.deadEnds++;
+                }
+                else {
+                    stats.junctions++;
+                }
+                // Walk each corridor leaving this cell, counting it from the lower end only
+                for (int slot = graph.firstSlot(cell); slot != -1; slot = graph.nextSlot(slot)) {
+                    walkCorridor(cell, graph.slotTarget(slot), stats);
+                }
+            }
+            return stats;
+        }
+
+        private void walkCorridor(int start, int first, RangeStats stats) {
+            int previous = start;
+            int current = first;
+            int length = 0;
+            while (true) {
+                // Stop at the first cell that does not have exactly two doors
+                int slot = graph.firstSlot(current);
+                int other = slot == -1 ? -1 : graph.nextSlot(slot);
+                if (other == -1 || graph.nextSlot(other) != -1) {
+                    break;
+                }
+                // Step to the door that does not lead back
+                int onward = graph.slotTarget(slot);
+                if (onward == previous) {
+                    onward = graph.slotTarget(other);
+                }
+                previous = current;
+                current = onward;
+                length++;
+            }
+            // A corridor looping back to its start is seen from both ends as well
+            if (length > 0 && (start < current || start == current && first < previous)) {
+                stats.addCorridor(length);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MazeAnalytics{deadEnds=" + deadEnds + ", junctions=" + junctions
+                + ", corridors=" + Arrays.stream(corridorLengths).sum()
+                + ", solutionLength=" + solutionLength + "}";
+    }
+}
@@ -0,0 +1,127 @@
+package generation;
+
+import java.util.Random;
+
+/**
+ * Turns a perfect maze into a braided one by knocking down extra walls at dead ends,
+ * which adds loops so there is more than one way through.
+ *
+ * Each braided dead end is joined to a random neighbour it is not already joined to,
+ * preferring a neighbour that is also a dead end so one new edge removes two of them.
+ * Mazes with loops have to be solved with a search that finds shortest paths, such as
+ * MazeGraph.bfs() or ShortestPathSolver, since dfs() only promises some path.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class MazeBraider {
+    private MazeBraider() {}
+
+    /**
+     * Removes a fraction of the dead ends of a rectangular maze.
+     * @param graph the maze to braid
+     * @param rows number of rows in the maze
+     * @param cols number of columns in the maze
+     * @param fraction how many of the dead ends to remove, from 0 (none) to 1 (all)
+     * @param random source of randomness for the choice of walls
+     * @return the number of edges added
+     */
+    public static int braid(MazeGraph graph, int rows, int cols, double fraction, Random random) {
+        return braid(graph, ScratchBuffers.current().rectangular(rows, cols), fraction, random);
+    }
+
+    /**
+     * Removes a fraction of the dead ends of a maze on any topology.
+     * @param graph the maze to braid
+     * @param topology how the cells of the maze connect
+     * @param fraction how many of the dead ends to remove, from 0 (none) to 1 (all)
+     * @param random source of randomness for the choice of walls
+     * @return the number of edges added
+     */
+    public static int braid(MazeGraph graph, Topology topology, double fraction, Random random) {
+        if (!(fraction >= 0 && fraction <= 1)) {
+            throw new IllegalArgumentException("Fraction of dead ends must be from 0 to 1, not " + fraction);
+        }
+        int cellCount = topology.getCellCount();
+        if (graph.getVertexCount() != cellCount) {
+            throw new IllegalArgumentException("Graph has " + graph.getVertexCount() + " cells, expected "
+                    + cellCount);
+        }
+
+        // Visit the dead ends in a random order until enough are gone
+        ScratchBuffers scratch = ScratchBuffers.current();
+        int[] cells = scratch.cells(cellCount);
+        int deadEnds = 0;
+        for (int cell = 0; cell < cellCount; cell++) {
+            cells[cell] = cell;
+            if (isDeadEnd(graph, cell)) {
+                deadEnds++;
+            }
+        }
+        int toRemove = (int) Math.round(deadEnds * fraction);
+        int degree = topology.getDegree();
+        int[] directions = scratch.directions(degree);
+
+        int removed = 0;
+        int added = 0;
+        for (int i = cellCount; i > 0 && removed < toRemove; i--) {
+            int index = random.nextInt(i);
+            int cell = cells[index];
+            cells[index] = cells[i - 1];
+            cells[i - 1] = cell;
+            if (!isDeadEnd(graph, cell)) {
+                continue; // Already joined to a dead end braided before it
+            }
+
+            shuffle(directions, degree, random);
+            int choice = -1;
+            for (int d = 0; d < degree; d++) {
+                int neighbor = topology.neighbor(cell, directions[d]);
+                if (neighbor == -1 || isJoined(graph, cell, neighbor)) {
+                    continue;
+                }
+                if (isDeadEnd(graph, neighbor)) {
+                    choice = neighbor;
+                    break;
+                }
+                if (choice == -1) {
+                    choice = neighbor;
+                }
+            }
+            if (choice != -1) {
+                removed += isDeadEnd(graph, choice) ? 2 : 1;
+                graph.addEdge(cell, choice);
+                added++;
+            }
+        }
+        return added;
+    }
+
+    private static boolean isDeadEnd(MazeGraph graph, int cell) {
+        int vertex = graph.internal(cell);
+        int slot = graph.firstSlot(vertex);
+        return slot != -1 && graph.nextSlot(slot) == -1;
+    }
+
+    private static boolean isJoined(MazeGraph graph, int cell, int neighbor) {
+        int target = graph.internal(neighbor);
+        for (int slot = graph.firstSlot(graph.internal(cell)); slot != -1; slot = graph.nextSlot(slot)) {
+            if (graph.slotTarget(slot) == target) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void shuffle(int[] directions, int degree, Random random) {
+        for (int i = 0; i < degree; i++) {
+            directions[i] = i;
+        }
+        for (int i = degree; i > 0; i--) {
+            int swap = random.nextInt(i);
+            int direction = directions[i - 1];
+            directions[i - 1] = directions[swap];
+            directions[swap] = direction;
+        }
+    }
+}
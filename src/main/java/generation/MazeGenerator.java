@@ -0,0 +1,139 @@
+package generation;
+
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generates a random maze using the DisjointSets class, which in turn implements the
+ * unionByHeight-find algorithm. The connections are stored in a MazeGraph.
+ * Mazes can be generated on any Topology, rectangular grids are the default.
+ *
+ * Scratch arrays come from a per-thread pool and the graph can be reused, so generating
+ * mazes of the same size over and over allocates nothing once warmed up.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class MazeGenerator {
+    private MazeGenerator() {}
+
+    /**
+     * Generates a new random maze.
+     * @param rows number of rows in the maze
+     * @param cols number of columns in the maze
+     * @return a graph holding a spanning tree over every cell
+     */
+    public static MazeGraph generate(int rows, int cols) {
+        return generate(rows, cols, new MazeGraph(rows * cols));
+    }
+
+    /**
+     * Generates a random maze into an existing graph, which is reset first.
+     * @param rows number of rows in the maze
+     * @param cols number of columns in the maze
+     * @param graph graph to reuse for the maze
+     * @return the graph passed in, holding a spanning tree over every cell
+     */
+    public static MazeGraph generate(int rows, int cols, MazeGraph graph) {
+        return generate(rows, cols, graph, ThreadLocalRandom.current()); // Faster than Random (not thread-safe)
+    }
+
+    /**
+     * Generates a random maze into an existing graph, which is reset first.
+     * @param rows number of rows in the maze
+     * @param cols number of columns in the maze
+     * @param graph graph to reuse for the maze
+     * @param random source of randomness for the maze layout
+     * @return the graph passed in, holding a spanning tree over every cell
+     */
+    public static MazeGraph generate(int rows, int cols, MazeGraph graph, Random random) {
+        CellLayout layout = graph.getLayout();
+        if (layout != null && (layout.getRows() != rows || layout.getCols() != cols)) {
+            // The layout was for a different shape of maze
+            graph.reset(CellLayout.of(CellLayout.Order.ROW_MAJOR, rows, cols));
+        }
+        else {
+            graph.reset(rows * cols);
+        }
+        carve(ScratchBuffers.current().rectangular(rows, cols), graph, random);
+        return graph;
+    }
+
+    /**
+     * Generates a random maze on any topology into an existing graph, which is reset first.
+     * @param topology how the cells of the maze connect
+     * @param graph graph to reuse for the maze
+     * @param random source of randomness for the maze layout
+     * @return the graph passed in, holding a spanning tree over every cell
+     */
+    public static MazeGraph generate(Topology topology, MazeGraph graph, Random random) {
+        graph.reset(topology.getCellCount());
+        carve(topology, graph, random);
+        return graph;
+    }
+
+    // Joins random neighbours until every cell is in one spanning tree
+    private static void carve(Topology topology, MazeGraph graph, Random random) {
+        // Initialize Maze data structures
+        int cellCount = topology.getCellCount();
+        int degree = topology.getDegree();
+        ScratchBuffers scratch = ScratchBuffers.current();
+        DisjointSets sets = scratch.disjointSets(cellCount);
+
+        // Create list of cells to choose from
+        int[] generatedCells = scratch.cells(cellCount);
+        for (int i = 0; i < cellCount; i++) {
+            generatedCells[i] = i;
+        }
+        int[] neighbors = scratch.directions(degree);
+
+        // Add edges to the graph randomly to form maze
+        // FISHER-YATES Algorithm: www.geeksforgeeks.org/shuffle-a-given-array-using-fisher-yates-shuffle-algorithm
+        while(graph.getEdgeCount() < cellCount -1) {
+            // Traverse Backwards through generatedCells
+            for (int i = cellCount; i > 0; i--) {
+                // Select a random cell from the unused cells in generatedCells
+                int nextCellIndex = random.nextInt(i);
+                int nextCell = generatedCells[nextCellIndex];
+                swap(nextCellIndex, i-1, generatedCells); // Place selected cell at the end
+
+                // Get random neighbor (cycle through them
+                int neighbor;
+                randomNeighbors(random, neighbors, degree);
+
+                for (int counter = 0; counter < degree; counter++) {
+                    neighbor = topology.neighbor(nextCell, neighbors[counter]);
+                    // Check if neighbor index is valid and if they are in the same set
+                    if (neighbor != -1 && !sets.sameSet(nextCell, neighbor)) {
+                        // Union the sets
+                        sets.union(nextCell, neighbor);
+                        // Store the edge in the graph
+                        graph.addEdge(nextCell, neighbor);
+                        break;
+                    }
+                }
+                // Exit loop early if the number of edges was found
+                if (graph.getEdgeCount() == cellCount -1) {
+                    break;
+                }
+            }
+        }
+    }
+
+    // Method to randomize the neighbor selection order
+    private static void randomNeighbors(Random random, int[] neighbors, int degree) {
+        for (int i = 0; i < degree; i++) {
+            neighbors[i] = i;
+        }
+        for (int i = degree; i > 0; i--) {
+            swap(i-1, random.nextInt(i), neighbors);
+        }
+    }
+
+    // Method to swap values at provided array indices
+    private static void swap(int firstIndex, int secondIndex, int[] array) {
+        int firstValue = array[firstIndex];
+        array[firstIndex] = array[secondIndex];
+        array[secondIndex] = firstValue;
+    }
+}
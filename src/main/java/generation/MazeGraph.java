@@ -1,13 +1,23 @@
 package generation;
 
 import java.util.*;
+import java.util.function.IntConsumer;
 
 /**
  * This class creates a graph structure to map the cells in a maze
  * and their connections.
  *
- * Graph is undirected and unweighted, implemented using an Adjacency list
- * due to low edge density
+ * Graph is undirected and unweighted (unless edge costs are set for the weighted
+ * solvers), implemented using an Adjacency list due to low edge density. The lists
+ * are stored in primitive arrays so a graph can be reset and reused without
+ * allocating when generating mazes repeatedly.
+ *
+ * Cells are row-major (index = row * cols + col) everywhere in the public API. A graph
+ * can optionally store them in another CellLayout, in which case indices are translated
+ * as they come in and go out and the searches work on the internal order.
+ *
+ * A graph is not thread-safe. To solve one maze from many threads, freeze it with
+ * snapshot() and solve the snapshot instead.
  *
  * @author Patrick Lindsay
  * @version 1.0
@@ -16,20 +26,80 @@ public class MazeGraph {
     // Constants
     private static final int SOURCE = 0;
     private static final int MAX_RECURSIVE_SEARCH = 700; // Used to avoid stackoverflow
+    private static final int NONE = -1;
+    private static final IntConsumer NO_VISITOR = cell -> {};
 
     // Fields
-    private Map<Integer, Node> adjacencyLists = new HashMap<>();
+    private int vertexCount;
+    private int[] heads;   // First slot in the adjacency list of each vertex
+    private int[] next;    // Next slot in the same adjacency list
+    private int[] targets; // Vertex at the other end of each slot
     private int edgeCount = 0;
+    private CellLayout layout; // null when cells are stored row-major
+    private int[] costs;       // Cost of each edge, only used once weighted
+    private boolean weighted;  // false while every edge costs 1
 
     /**
      * Constructor for generating a new maze with no connections.
      * @param vertices number of cells in the maze
      */
     public MazeGraph(int vertices) {
-        // Add all the cells to the graph
-        for (int i = 0; i < vertices; i++) {
-            adjacencyLists.put(i, null);
+        heads = new int[vertices];
+        next = new int[edgeSlots(vertices)];
+        targets = new int[edgeSlots(vertices)];
+        reset(vertices);
+    }
+
+    /**
+     * Constructor for a maze with no connections whose cells are stored in the
+     * order of the given layout.
+     * @param layout the order to store cells in
+     */
+    public MazeGraph(CellLayout layout) {
+        this(layout.getCellCount());
+        reset(layout);
+    }
+
+    /**
+     * Removes every edge and resizes the graph to the given number of cells.
+     * The backing arrays are kept when they are already large enough, so resetting
+     * to the same (or a smaller) size allocates nothing. The layout is kept if it
+     * has the same number of cells, otherwise cells go back to row-major order.
+     * @param vertices number of cells in the maze
+     */
+    public void reset(int vertices) {
+        if (layout != null && layout.getCellCount() != vertices) {
+            layout = null;
+        }
+        resize(vertices);
+    }
+
+    /**
+     * Removes every edge and switches to storing cells in the given layout.
+     * @param layout the order to store cells in
+     */
+    public void reset(CellLayout layout) {
+        this.layout = layout.getOrder() == CellLayout.Order.ROW_MAJOR ? null : layout;
+        resize(layout.getCellCount());
+    }
+
+    private void resize(int vertices) {
+        if (heads.length < vertices) {
+            heads = new int[vertices];
+        }
+        if (next.length < edgeSlots(vertices)) {
+            next = new int[edgeSlots(vertices)];
+            targets = new int[edgeSlots(vertices)];
         }
+        Arrays.fill(heads, 0, vertices, NONE);
+        vertexCount = vertices;
+        edgeCount = 0;
+        weighted = false;
+    }
+
+    // A spanning tree has vertices - 1 edges, each stored in both directions
+    private static int edgeSlots(int vertices) {
+        return 2 * Math.max(vertices - 1, 1);
     }
 
     /**
@@ -39,26 +109,90 @@ public class MazeGraph {
      * @param second another index representing a cell in the maze other than first
      */
     public void addEdge(int first, int second) {
+        first = internal(first);
+        second = internal(second);
+
         // Edges are a set (No duplicates)
         if (containsEdge(first, second)) {
             return;
         }
-        addDirectedEdge(first, second);
-        addDirectedEdge(second, first);
+        // Extra edges beyond a spanning tree (loops) need more room
+        if (2 * edgeCount + 2 > next.length) {
+            next = Arrays.copyOf(next, next.length * 2);
+            targets = Arrays.copyOf(targets, targets.length * 2);
+        }
+        // Each edge takes two consecutive slots, one for each direction
+        addDirectedEdge(first, second, 2 * edgeCount);
+        addDirectedEdge(second, first, 2 * edgeCount + 1);
+        if (weighted) {
+            ensureCosts();
+            costs[edgeCount] = 1;
+        }
         edgeCount++;
     }
 
-    private void addDirectedEdge(int first, int second) {
-        Node oldHead = adjacencyLists.get(first);
-        if (oldHead == null) {
-            adjacencyLists.put(first, new Node(second));
+    /**
+     * Adds an edge that costs more (or less) than 1 to walk along. Only weighted
+     * solvers such as DijkstraSolver look at the cost. An edge that already exists
+     * keeps its cost.
+     * @param first an index representing a cell in the maze
+     * @param second another index representing a cell in the maze other than first
+     * @param cost the cost of the edge, at least 0
+     */
+    public void addEdge(int first, int second, int cost) {
+        int edges = edgeCount;
+        addEdge(first, second);
+        if (edgeCount > edges) {
+            setEdgeCost(edges, cost);
         }
-        else {
-            // Put new node at the start of the LinkedList
-            adjacencyLists.put(first, new Node(second, oldHead));
+    }
+
+    /**
+     * Changes the cost of walking along an edge.
+     * @param edge an edge number from 0 to getEdgeCount() - 1
+     * @param cost the cost of the edge, at least 0
+     */
+    public void setEdgeCost(int edge, int cost) {
+        Objects.checkIndex(edge, edgeCount);
+        if (cost < 0) {
+            throw new IllegalArgumentException("Edge costs cannot be negative: " + cost);
+        }
+        if (!weighted) {
+            if (cost == 1) {
+                return;
+            }
+            // Every edge so far has the default cost
+            ensureCosts();
+            Arrays.fill(costs, 0, edgeCount, 1);
+            weighted = true;
+        }
+        costs[edge] = cost;
+    }
+
+    /**
+     * Returns the cost of walking along an edge, which is 1 unless it was changed.
+     * @param edge an edge number from 0 to getEdgeCount() - 1
+     * @return the cost of the edge
+     */
+    public int getEdgeCost(int edge) {
+        Objects.checkIndex(edge, edgeCount);
+        return weighted ? costs[edge] : 1;
+    }
+
+    private void ensureCosts() {
+        if (costs == null || costs.length < next.length / 2) {
+            costs = costs == null ? new int[next.length / 2] : Arrays.copyOf(costs, next.length / 2);
         }
     }
 
+    private void addDirectedEdge(int first, int second, int slot) {
+        targets[slot] = second;
+
+        // Put new node at the start of the LinkedList
+        next[slot] = heads[first];
+        heads[first] = slot;
+    }
+
     /**
      * Getter method for the vertices in the graph. Returns a map of the
      * @return Map of cell indices to Cell containers storing the walls to draw
@@ -67,30 +201,14 @@ public class MazeGraph {
         Map<Integer, Cell> cells = new HashMap<>();
 
         // Look at all vertices
-        for (int key : adjacencyLists.keySet()) {
-            // Add at each edge in the linked list
-            Node current = adjacencyLists.get(key);
+        for (int key = 0; key < vertexCount; key++) {
+            int doors = doorMask(key);
 
             Cell newCell = new Cell();
-            while (current != null) {
-                int wallReference = key - current.vertex;
-                if (wallReference < 0) {
-                    if (wallReference == -1) {
-                        newCell.setDoor(Cell.EAST); // West
-                    }
-                    else {
-                        newCell.setDoor(Cell.SOUTH); // South
-                    }
-                }
-                else {
-                    if (wallReference == 1) {
-                        newCell.setDoor(Cell.WEST); // East
-                    }
-                    else {
-                        newCell.setDoor(Cell.NORTH); // North
-                    }
+            for (int door = Cell.NORTH; door <= Cell.WEST; door++) {
+                if ((doors & (1 << door)) != 0) {
+                    newCell.setDoor(door);
                 }
-                current = current.next;
             }
             // Track key as added
             cells.put(key, newCell);
@@ -98,22 +216,132 @@ public class MazeGraph {
         return cells;
     }
 
+    /**
+     * Returns the doors of a single cell without building any Cell containers.
+     * Like cellMap(), this assumes the maze is a rectangular grid. Without the number
+     * of columns a step of one cell is taken to be east or west, so mazes a single
+     * column wide need doorMask(vertex, cols).
+     * Bit (1 &lt;&lt; Cell.NORTH) is set when the north wall is open, and so on for
+     * the other directions.
+     * @param vertex an index representing a cell in the maze
+     * @return bit mask of the open walls of the cell
+     */
+    public int doorMask(int vertex) {
+        int doors = 0;
+        for (int slot = heads[internal(vertex)]; slot != NONE; slot = next[slot]) {
+            doors |= 1 << direction(vertex, external(targets[slot]));
+        }
+        return doors;
+    }
+
+    /**
+     * Returns the doors of a single cell of a rectangular maze with the given width.
+     * @param vertex an index representing a cell in the maze
+     * @param cols number of columns in the maze
+     * @return bit mask of the open walls of the cell, as for doorMask(vertex)
+     */
+    public int doorMask(int vertex, int cols) {
+        int doors = 0;
+        for (int slot = heads[internal(vertex)]; slot != NONE; slot = next[slot]) {
+            doors |= 1 << direction(vertex, external(targets[slot]), cols);
+        }
+        return doors;
+    }
+
+    /**
+     * Returns the order cells are stored in.
+     * @return the layout, or null if cells are stored row-major
+     */
+    public CellLayout getLayout() {
+        return layout;
+    }
+
+    /**
+     * Regroups the stored edges so the edges of cells that are close together in the
+     * layout are also close together in memory, which speeds up the searches on large
+     * mazes. Edges are renumbered, so getEdgeFrom() and getEdgeTo() no longer follow
+     * the order the edges were added in.
+     */
+    public void compact() {
+        // Counting sort of the edges by their lower internal cell
+        int[] starts = new int[vertexCount + 1];
+        for (int edge = 0; edge < edgeCount; edge++) {
+            starts[Math.min(targets[2 * edge], targets[2 * edge + 1]) + 1]++;
+        }
+        for (int vertex = 0; vertex < vertexCount; vertex++) {
+            starts[vertex + 1] += starts[vertex];
+        }
+        int[] sorted = new int[2 * edgeCount];
+        int[] sortedCosts = weighted ? new int[costs.length] : null;
+        for (int edge = 0; edge < edgeCount; edge++) {
+            int position = starts[Math.min(targets[2 * edge], targets[2 * edge + 1])]++;
+            sorted[2 * position] = targets[2 * edge];
+            sorted[2 * position + 1] = targets[2 * edge + 1];
+            if (weighted) {
+                sortedCosts[position] = costs[edge];
+            }
+        }
+        if (weighted) {
+            costs = sortedCosts;
+        }
+
+        // Rebuild the adjacency lists in the new edge order
+        Arrays.fill(heads, 0, vertexCount, NONE);
+        for (int edge = 0; edge < edgeCount; edge++) {
+            addDirectedEdge(sorted[2 * edge + 1], sorted[2 * edge], 2 * edge);
+            addDirectedEdge(sorted[2 * edge], sorted[2 * edge + 1], 2 * edge + 1);
+        }
+    }
+
+    // Translates a row-major cell to where it is stored
+    int internal(int cell) {
+        return layout == null ? cell : layout.toInternal(cell);
+    }
+
+    // Translates a stored cell back to row-major
+    int external(int vertex) {
+        return layout == null ? vertex : layout.toRowMajor(vertex);
+    }
+
+    // Wraps a visitor so it is told about row-major cells
+    private IntConsumer external(IntConsumer visitor) {
+        return layout == null || visitor == NO_VISITOR ? visitor : vertex -> visitor.accept(external(vertex));
+    }
+
+    // Works out which wall of the cell the edge passes through
+    private static int direction(int vertex, int neighbor) {
+        int wallReference = vertex - neighbor;
+        if (wallReference < 0) {
+            return wallReference == -1 ? Cell.EAST : Cell.SOUTH;
+        }
+        return wallReference == 1 ? Cell.WEST : Cell.NORTH;
+    }
+
+    // Same, knowing the width of the grid. Rows are checked first, since in a single
+    // column the cells above and below are also one index away.
+    private static int direction(int vertex, int neighbor, int cols) {
+        int step = neighbor - vertex;
+        if (step == cols) {
+            return Cell.SOUTH;
+        }
+        if (step == -cols) {
+            return Cell.NORTH;
+        }
+        return step == 1 ? Cell.EAST : Cell.WEST;
+    }
+
     private boolean containsVertex(int search) {
-        return adjacencyLists.containsKey(search);
+        return search >= 0 && search < vertexCount;
     }
 
     private boolean containsEdge(int first, int second) {
         // Check that the vertices are in the graph
         if (containsVertex(first) && containsVertex(second)) {
-            // Get the adjacency list of one vertex (both work with undirected graph)
-            Node current = adjacencyLists.get(first);
-
-            // Search adjacency list for the other value
-            while(current != null) {
-                if (current.vertex == second) {
+            // Search adjacency list of one vertex (both work with undirected graph)
+            for (int slot = heads[first]; slot != NONE; slot = next[slot]) {
+                if (targets[slot] == second) {
                     return true;
                 }
-                current = current.next;
             }
         }
         return false;
@@ -127,30 +355,72 @@ public class MazeGraph {
         return edgeCount;
     }
 
+    /**
+     * Returns the cell an edge was added from. Edges are numbered from 0 in the
+     * order they were added, so replaying them shows how the maze was generated.
+     * @param edge an edge number from 0 to getEdgeCount() - 1
+     * @return the first cell passed to addEdge()
+     */
+    public int getEdgeFrom(int edge) {
+        Objects.checkIndex(edge, edgeCount);
+        return external(targets[2 * edge + 1]);
+    }
+
+    /**
+     * Returns the cell an edge was added to.
+     * @param edge an edge number from 0 to getEdgeCount() - 1
+     * @return the second cell passed to addEdge()
+     */
+    public int getEdgeTo(int edge) {
+        Objects.checkIndex(edge, edgeCount);
+        return external(targets[2 * edge]);
+    }
+
+    /**
+     * Method to return the number of cells in the graph
+     * @return number of vertices in the graph
+     */
+    public int getVertexCount() {
+        return vertexCount;
+    }
+
     /**
      * Search Algorithm to traverse the maze and find the path from
      * start to finish and return the cell traversal as a list.
+     * The path is only the shortest one in a perfect maze, on a maze with
+     * loops (see MazeBraider) use bfs() or ShortestPathSolver.
      * @return a list of cell indices from 0 to cellCount - 1
      */
     public List<Integer> dfs() {
+        return dfs(NO_VISITOR);
+    }
+
+    /**
+     * Depth-First Search that also reports each cell as it is first visited.
+     * @param visitor told about every cell the search visits, in order
+     * @return a list of cell indices from 0 to cellCount - 1
+     */
+    public List<Integer> dfs(IntConsumer visitor) {
         // Verify that graph has the correct number of edges
-        if (edgeCount < adjacencyLists.size() - 1) {
+        if (edgeCount < vertexCount - 1) {
             return new ArrayList<>();
         }
         // Create tracker variables
         List<Integer> traversal = new ArrayList<>();
-        Set<Integer> visited = new HashSet<>();
+        ScratchBuffers scratch = ScratchBuffers.current();
+        boolean[] visited = scratch.visited(vertexCount);
 
         // Solve Using DFS (choose version and avoid stackoverflow)
-        if (adjacencyLists.size() <= MAX_RECURSIVE_SEARCH) {
+        if (vertexCount <= MAX_RECURSIVE_SEARCH) {
             // Recursive DFS call
-            dfsRecursive(0, adjacencyLists.size() - 1, traversal, visited);
+            dfsRecursive(internal(SOURCE), internal(vertexCount - 1), traversal, visited, external(visitor));
         }
         else {
             // Iterative DFS call
-            Stack<Integer> traversal2 = dfsIterative(adjacencyLists.size() - 1, visited);
-            while (!traversal2.isEmpty()) {
-                traversal.add(traversal2.pop());
+            int[] stack = scratch.stack(vertexCount);
+            int top = dfsIterative(internal(SOURCE), internal(vertexCount - 1), visited, stack, external(visitor));
+            while (top > 0) {
+                traversal.add(external(stack[--top]));
             }
         }
         return traversal;
@@ -158,143 +428,246 @@ public class MazeGraph {
 
     // Private method to traverse the cells in the maze using
     // Depth First Search, storing the traversal path as a list
-    private boolean dfsRecursive(int current, int target, List<Integer> traversal, Set<Integer> visited) {
+    private boolean dfsRecursive(int current, int target, List<Integer> traversal, boolean[] visited,
+                                 IntConsumer visitor) {
         // Base Case (Target Found)
         if (current == target) {
-            traversal.add(current);
+            visitor.accept(current);
+            traversal.add(external(current));
             return true;
         }
 
         // Ignore already visited cells
-        if (!visited.contains(current)) {
+        if (!visited[current]) {
             // Store current cell as visited (Not traversed)
-            visited.add(current);
+            visited[current] = true;
+            visitor.accept(current);
 
             // Visit adjacent neighbors
-            Node neighbor = adjacencyLists.get(current);
-            while(neighbor != null) {
+            for (int slot = heads[current]; slot != NONE; slot = next[slot]) {
                 // Visit this neighbor, stop looking if target found
-                if (dfsRecursive(neighbor.vertex, target, traversal, visited)) {
-                    traversal.add(current);
+                if (dfsRecursive(targets[slot], target, traversal, visited, visitor)) {
+                    traversal.add(external(current));
                     return true;
                 }
-                // Move to next neighbor
-                neighbor = neighbor.next;
             }
         }
         return false;
     }
 
     // Private method to traverse the cells in the maze using
-    // Depth First Search, storing the traversal path as a list
+    // Depth First Search, storing the traversal path in the stack
+    // and returning the number of cells on it
     // *Prevents StackOverflow* (non-recursive)
-    private Stack<Integer> dfsIterative(int target, Set<Integer> visited) {
-        Stack<Integer> traversal = new Stack<>();
-        int currentCell = SOURCE;
+    private int dfsIterative(int source, int target, boolean[] visited, int[] stack, IntConsumer visitor) {
+        int top = 0;
+        int currentCell = source;
 
         // Repeats for each Vertex in traversal
         while(currentCell != target) {
             // If this is the first visit to the cell, add to visited set
-            if (!visited.contains(currentCell)) {
-                visited.add(currentCell);
-                traversal.add(currentCell);
+            if (!visited[currentCell]) {
+                visited[currentCell] = true;
+                visitor.accept(currentCell);
+                stack[top++] = currentCell;
             }
 
             // Traverse neighbors
-            Node neighborList = adjacencyLists.get(currentCell);
-            while (neighborList != null ) {
+            int slot = heads[currentCell];
+            while (slot != NONE) {
                 // Find first non-visited neighbor
-                if (!visited.contains(neighborList.vertex)) {
-                    currentCell = neighborList.vertex;
+                if (!visited[targets[slot]]) {
+                    currentCell = targets[slot];
                     break;
                 }
-                neighborList = neighborList.next;
+                slot = next[slot];
             }
 
             // Check if neighbor was not found (DEAD END FOUND)
-            if (neighborList == null) {
+            if (slot == NONE) {
                 // Step back in traversal
-                traversal.pop();
-                currentCell = traversal.peek();
+                top--;
+                currentCell = stack[top - 1];
             }
         }
-        traversal.add(currentCell);
-        return traversal;
+        visitor.accept(currentCell);
+        stack[top++] = currentCell;
+        return top;
     }
 
     /**
-     * Method to solve the maze using Breadth-First Search
-     * @return a list of vertices to traverse to get through the maze
+     * Method to solve the maze using Breadth-First Search, which finds a shortest
+     * path even when the maze has loops
+     * @return a map from each cell on the path through the maze to the cell
+     * before it, starting from cellCount - 1
      */
     public Map<Integer, Integer> bfs() {
+        return bfs(NO_VISITOR);
+    }
+
+    /**
+     * Breadth-First Search that also reports each cell as it is expanded.
+     * @param visitor told about every cell the search expands, in order
+     * @return a map from each cell on the path through the maze to the cell
+     * before it, starting from cellCount - 1
+     */
+    public Map<Integer, Integer> bfs(IntConsumer visitor) {
         // Verify that graph has the correct number of edges
-        if (edgeCount < adjacencyLists.size() - 1) {
+        if (edgeCount < vertexCount - 1) {
             return new HashMap<>();
         }
         // Get traversal
-        return bsfIterative(adjacencyLists.size() - 1);
+        return bsfIterative(internal(vertexCount - 1), external(visitor));
+    }
+
+    /**
+     * Depth-First Search that visits one cell each time the caller asks for the next,
+     * so it can be stopped early without paying for the rest of the maze.
+     * @param start the cell to start from
+     * @param target the cell to stop after, or -1 to visit every cell start can reach
+     * @return the cells in the order they are visited
+     */
+    public MazeTraversal dfsIterator(int start, int target) {
+        return new MazeTraversal(this, true, start, target);
+    }
+
+    /**
+     * Breadth-First Search that expands one cell each time the caller asks for the next,
+     * nearest cells first, so it can be stopped early without paying for the rest of the maze.
+     * @param start the cell to start from
+     * @param target the cell to stop after, or -1 to visit every cell start can reach
+     * @return the cells in the order they are expanded
+     */
+    public MazeTraversal bfsIterator(int start, int target) {
+        return new MazeTraversal(this, false, start, target);
+    }
+
+    /**
+     * Finds the nearest of several exits to every cell with one Breadth-First Search
+     * started from all of them, see ExitMap.
+     * @param exits the exit cells, at least one
+     * @return the nearest exit, distance and way out of every cell
+     */
+    public ExitMap nearestExits(int... exits) {
+        return ExitMap.build(this, exits);
+    }
+
+    /**
+     * Copies the maze into an immutable form that many threads can solve at once.
+     * Later changes to this graph do not affect the snapshot.
+     * @return a snapshot of the current passages
+     */
+    public MazeSnapshot snapshot() {
+        return new MazeSnapshot(this);
     }
 
     // Iterative approach to bfs (Prevents stackoverflow)
-    private Map<Integer, Integer> bsfIterative(int target) {
-        // BSF Queue
-        Queue<Integer> bfsQueue = new ArrayDeque<>();
-        Set<Integer> visited = new HashSet<>();
+    private Map<Integer, Integer> bsfIterative(int target, IntConsumer visitor) {
+        int source = internal(SOURCE);
+        int[] parents = bfsParents(source, target, visitor);
+
+        // Target found - only box the cells on the path
         Map<Integer, Integer> traversalMap = new HashMap<>();
+        if (parents != null) {
+            for (int current = target; current != source; current = parents[current]) {
+                traversalMap.put(external(current), external(parents[current]));
+            }
+        }
+        return traversalMap;
+    }
+
+    /**
+     * Solves the maze with Breadth-First Search into a caller-owned array, for callers
+     * solving many mazes that cannot afford to box every cell on the path.
+     * @param path array of at least getVertexCount() entries, filled with the cells on the
+     *             path from the entrance (cell 0) to the exit (cell getVertexCount() - 1)
+     * @return the number of cells on the path, or 0 if the exit cannot be reached
+     */
+    public int solve(int[] path) {
+        int source = internal(SOURCE);
+        int[] parents = bfsParents(source, internal(vertexCount - 1));
+        if (parents == null) {
+            return 0;
+        }
+
+        // Walk back from the exit, then flip the path to start at the entrance
+        int length = 0;
+        for (int current = internal(vertexCount - 1); current != NONE; current = parents[current]) {
+            path[length++] = external(current);
+        }
+        for (int i = 0, j = length - 1; i < j; i++, j--) {
+            int cell = path[i];
+            path[i] = path[j];
+            path[j] = cell;
+        }
+        return length;
+    }
+
+    // Breadth-First Search from source until target is reached, mapping each reached
+    // cell to the cell before it in a pooled array. Returns null if target is unreachable
+    // (cells here and in the cursor below are internal, see internal())
+    int[] bfsParents(int source, int target) {
+        return bfsParents(source, target, NO_VISITOR);
+    }
+
+    int[] bfsParents(int source, int target, IntConsumer visitor) {
+        // BSF Queue (each cell is queued at most once)
+        ScratchBuffers scratch = ScratchBuffers.current();
+        int[] bfsQueue = scratch.stack(vertexCount);
+        int[] parents = scratch.parents(vertexCount);
+        boolean[] visited = scratch.visited(vertexCount);
+        int head = 0;
+        int tail = 0;
 
         // Traverse the queue
-        bfsQueue.add(SOURCE);
+        bfsQueue[tail++] = source;
+        visited[source] = true;
+        parents[source] = NONE;
         // Look at a cell in the maze
-        while(!bfsQueue.isEmpty()) {
-            int current = bfsQueue.poll();
-            // If current is visited, skip to next in queue
-            if (visited.contains(current)) {
-                continue;
-            }
-            // add current to visited
-            visited.add(current);
+        while(head < tail && !visited[target]) {
+            int current = bfsQueue[head++];
+            visitor.accept(current);
 
             // Check each non-visited neighbor and add to queue
-            Node neighbors = adjacencyLists.get(current);
-            while (neighbors != null) {
-                // Check for target
-                if (neighbors.vertex == target) {
-                    traversalMap.put(neighbors.vertex, current);
-                    break;
-                }
+            for (int slot = heads[current]; slot != NONE; slot = next[slot]) {
+                int neighbor = targets[slot];
                 // Check if cell has been visited
-                if (!visited.contains(neighbors.vertex)) {
+                if (!visited[neighbor]) {
                     // Add new cells to queue and map their paths
-                    traversalMap.put(neighbors.vertex, current);
-                    bfsQueue.add(neighbors.vertex);
+                    visited[neighbor] = true;
+                    parents[neighbor] = current;
+                    bfsQueue[tail++] = neighbor;
                 }
-                // Get next neighbor
-                neighbors = neighbors.next;
             }
         }
-        // Target found - return map to construct traversal
-        return traversalMap;
+        return visited[target] ? parents : null;
     }
 
-    // Inner Classes
-    private static class Node {
-        // Data in node
-        private int vertex;
+    // Primitive cursor over the adjacency lists for the other classes in the package:
+    // for (int slot = firstSlot(v); slot != -1; slot = nextSlot(slot)) { slotTarget(slot) }
+    int firstSlot(int vertex) {
+        return heads[vertex];
+    }
 
-        // Next Node
-        private Node next;
+    int nextSlot(int slot) {
+        return next[slot];
+    }
 
-        public Node(int otherVertex) {
-            this.vertex = otherVertex;
-        }
+    int slotTarget(int slot) {
+        return targets[slot];
+    }
 
-        public Node(int otherVertex, Node next) {
-            this.vertex = otherVertex;
-            this.next = next;
-        }
+    // Cost of the edge a slot belongs to
+    int slotCost(int slot) {
+        return weighted ? costs[slot >> 1] : 1;
+    }
 
-        @Override
-        public String toString() { return "Node{}"; }
+    int degree(int vertex) {
+        int degree = 0;
+        for (int slot = heads[vertex]; slot != NONE; slot = next[slot]) {
+            degree++;
+        }
+        return degree;
     }
 
     @Override
@@ -0,0 +1,228 @@
+package generation;
+
+import java.io.Closeable;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Keeps a few mazes of the current size generated ahead of time on a background thread,
+ * so asking for a maze usually costs nothing.
+ *
+ * The pool refills itself after each maze is taken and throws away every ready maze
+ * when the size changes. Ready mazes are limited both by count and by an estimate of
+ * the memory their graphs use, so large sizes keep fewer mazes ready (or none, when a
+ * single maze is over the budget, in which case take() generates on the calling thread).
+ * The memory budget covers every graph the pool holds: the ready mazes, the maze being
+ * generated in the background and the spare graph handed back by recycle().
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class MazePool implements Closeable {
+    // Constants
+    public static final int DEFAULT_CAPACITY = 4;
+    public static final long DEFAULT_MEMORY_BUDGET = 64L << 20;
+    private static final long BYTES_PER_CELL = 5L * Integer.BYTES; // A head, and two slots per edge
+
+    // Fields
+    private final int capacity;
+    private final long memoryBudget;
+    private final ExecutorService refiller;
+    private final Deque<MazeGraph> ready = new ArrayDeque<>();
+    private MazeGraph spare; // A used graph to generate the next maze into
+    private int rows;
+    private int cols;
+    private int epoch;       // Changes with the size, so mazes for an old size are not kept
+    private boolean refilling;
+    private boolean generating; // The background thread is working on a maze
+    private boolean closed;
+
+    /**
+     * Creates a pool with the default capacity and memory budget.
+     */
+    public MazePool() {
+        this(DEFAULT_CAPACITY, DEFAULT_MEMORY_BUDGET);
+    }
+
+    /**
+     * Creates a pool. Nothing is generated until a size is set or a maze is taken.
+     * @param capacity most mazes to keep ready
+     * @param memoryBudget most bytes to spend on ready mazes
+     */
+    public MazePool(int capacity, long memoryBudget) {
+        if (capacity < 0 || memoryBudget < 0) {
+            throw new IllegalArgumentException("Capacity and memory budget cannot be negative");
+        }
+        this.capacity = capacity;
+        this.memoryBudget = memoryBudget;
+        this.refiller = Executors.newSingleThreadExecutor(task -> {
+            Thread thread = new Thread(task, "maze-pool");
+            thread.setDaemon(true); // Never keeps the program running
+            return thread;
+        });
+    }
+
+    /**
+     * Estimates the memory held by the graph of a maze.
+     * @param rows number of rows in the maze
+     * @param cols number of columns in the maze
+     * @return number of bytes
+     */
+    public static long estimateBytes(int rows, int cols) {
+        return (long) rows * cols * BYTES_PER_CELL;
+    }
+
+    /**
+     * Switches the pool to mazes of a new size, discarding the mazes ready for the old
+     * size and starting on the new one in the background.
+     * @param rows number of rows in the maze
+     * @param cols number of columns in the maze
+     */
+    public synchronized void setSize(int rows, int cols) {
+        if (rows == this.rows && cols == this.cols) {
+            return;
+        }
+        this.rows = rows;
+        this.cols = cols;
+        epoch++;
+        ready.clear();
+        spare = null;
+        refill();
+    }
+
+    /**
+     * Returns a new random maze of the given size, generating it on the calling thread
+     * if none is ready. The pool no longer uses the graph returned.
+     * @param rows number of rows in the maze
+     * @param cols number of columns in the maze
+     * @return a graph holding a spanning tree over every cell
+     */
+    public MazeGraph take(int rows, int cols) {
+        MazeGraph graph;
+        synchronized (this) {
+            setSize(rows, cols);
+            graph = ready.pollFirst();
+            if (graph != null) {
+                refill();
+                return graph;
+            }
+            graph = spare;
+            spare = null;
+        }
+
+        graph = MazeGenerator.generate(rows, cols, graph == null ? new MazeGraph(rows * cols) : graph);
+        synchronized (this) {
+            refill();
+        }
+        return graph;
+    }
+
+    /**
+     * Hands back a maze that is no longer needed so its memory can be reused for the
+     * next maze, as long as the budget has room for it.
+     * @param graph a graph taken from this pool
+     */
+    public synchronized void recycle(MazeGraph graph) {
+        if (!closed && spare == null && graph.getVertexCount() == rows * cols && ready.size() < capacity
+                && fits(heldMazes() + 1)) {
+            spare = graph;
+            refill();
+        }
+    }
+
+    /**
+     * Returns the number of mazes ready to be taken.
+     * @return the number of ready mazes
+     */
+    public synchronized int getReadyCount() {
+        return ready.size();
+    }
+
+    // Number of graphs the pool is holding on to, ready or not
+    synchronized int heldMazes() {
+        return ready.size() + (spare != null ? 1 : 0) + (generating ? 1 : 0);
+    }
+
+    // Whether the budget has room for a number of graphs of the current size
+    private boolean fits(int mazes) {
+        return mazes * estimateBytes(rows, cols) <= memoryBudget;
+    }
+
+    // Whether the background thread should make another maze (call holding the lock).
+    // A spare graph is generated into, so it does not add to the memory held.
+    private boolean needsMaze() {
+        return !closed && rows > 0 && ready.size() < capacity
+                && fits(heldMazes() + (spare != null ? 0 : 1));
+    }
+
+    // Starts the background thread if there are mazes to make (call holding the lock)
+    private void refill() {
+        if (!refilling && needsMaze()) {
+            refilling = true;
+            refiller.execute(this::refillLoop);
+        }
+    }
+
+    private void refillLoop() {
+        try {
+            while (true) {
+                int mazeRows;
+                int mazeCols;
+                int mazeEpoch;
+                MazeGraph graph;
+                synchronized (this) {
+                    // Stop under the same lock that decides to, so refill() can start a new loop
+                    if (!needsMaze()) {
+                        refilling = false;
+                        return;
+                    }
+                    mazeRows = rows;
+                    mazeCols = cols;
+                    mazeEpoch = epoch;
+                    graph = spare;
+                    spare = null;
+                    generating = true;
+                }
+
+                // Generate without the lock so take() never waits for the background thread
+                if (graph == null) {
+                    graph = new MazeGraph(mazeRows * mazeCols);
+                }
+                MazeGenerator.generate(mazeRows, mazeCols, graph);
+
+                synchronized (this) {
+                    generating = false;
+                    // Drop mazes for a size the user has already moved away from
+                    if (mazeEpoch == epoch && ready.size() < capacity) {
+                        ready.addLast(graph);
+                    }
+                }
+            }
+        }
+        catch (RuntimeException | Error e) {
+            synchronized (this) {
+                generating = false;
+                refilling = false;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Stops generating and discards every ready maze.
+     */
+    @Override
+    public synchronized void close() {
+        closed = true;
+        ready.clear();
+        spare = null;
+        refiller.shutdownNow();
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "MazePool{" + ready.size() + "/" + capacity + " ready of " + rows + "x" + cols + "}";
+    }
+}
@@ -0,0 +1,204 @@
+package generation;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+import static generation.MazeWriter.*;
+
+/**
+ * Streams a maze written by MazeWriter back in, one row at a time.
+ *
+ * Only two rows of cells are held at once (the row being returned and the row below
+ * it, which holds the south doors), so mazes far larger than the heap can be read
+ * without building a MazeGraph. The inflater reads ahead of the end of the maze, so
+ * when several mazes share one stream the caller has to frame them itself.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class MazeReader implements Closeable {
+    // Fields
+    private final InputStream in;
+    private final Inflater inflater;
+    private final InflaterInputStream inflated;
+    private final int rows;
+    private final int cols;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int bufferPosition = 0;
+    private int bufferLength = 0;
+    private int packed;
+    private long cellsLoaded = 0;
+    private byte[] currentRow;
+    private byte[] nextRow;
+    private int row = 0;
+
+    /**
+     * Reads the header of a maze from the stream.
+     * @param in stream to read from, closed when this reader is closed
+     * @throws IOException if the stream does not start with a maze header
+     */
+    public MazeReader(InputStream in) throws IOException {
+        this.in = in;
+        DataInputStream header = new DataInputStream(in);
+        if (header.readInt() != MAGIC) {
+            throw new IOException("Stream does not contain a maze");
+        }
+        int version = header.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported maze format version " + version);
+        }
+        rows = header.readInt();
+        cols = header.readInt();
+        if (rows <= 0 || cols <= 0) {
+            throw new IOException("Invalid maze dimensions " + rows + "x" + cols);
+        }
+
+        inflater = new Inflater();
+        inflated = new InflaterInputStream(in, inflater);
+        currentRow = new byte[cols];
+        nextRow = new byte[cols];
+    }
+
+    /**
+     * Returns the number of rows in the maze.
+     * @return number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of columns in the maze.
+     * @return number of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Reads the next row of the maze.
+     * @param doors array of at least cols entries, filled with the door mask
+     *              (see MazeGraph.doorMask()) of each cell in the row
+     * @return the index of the row read, or -1 if every row has been read
+     * @throws IOException if the stream ends early or cannot be read
+     */
+    public int readRow(int[] doors) throws IOException {
+        if (row == rows) {
+            return -1;
+        }
+        // The row below supplies the south doors of this row
+        if (row == 0) {
+            loadRow(currentRow);
+        }
+        else {
+            byte[] swap = currentRow;
+            currentRow = nextRow;
+            nextRow = swap;
+        }
+        boolean lastRow = row == rows - 1;
+        if (!lastRow) {
+            loadRow(nextRow);
+        }
+
+        for (int col = 0; col < cols; col++) {
+            int bits = currentRow[col];
+            int cellDoors = 0;
+            if ((bits & NORTH_BIT) != 0) {
+                cellDoors |= 1 << Cell.NORTH;
+            }
+            if ((bits & WEST_BIT) != 0) {
+                cellDoors |= 1 << Cell.WEST;
+            }
+            if (col < cols - 1 && (currentRow[col + 1] & WEST_BIT) != 0) {
+                cellDoors |= 1 << Cell.EAST;
+            }
+            if (!lastRow && (nextRow[col] & NORTH_BIT) != 0) {
+                cellDoors |= 1 << Cell.SOUTH;
+            }
+            doors[col] = cellDoors;
+        }
+        return row++;
+    }
+
+    // Unpacks the 2-bit north/west values of the next row of cells
+    private void loadRow(byte[] target) throws IOException {
+        for (int col = 0; col < cols; col++) {
+            int shift = (int) (cellsLoaded % CELLS_PER_BYTE) * 2;
+            if (shift == 0) {
+                packed = nextByte();
+            }
+            target[col] = (byte) ((packed >> shift) & (NORTH_BIT | WEST_BIT));
+            cellsLoaded++;
+        }
+    }
+
+    private int nextByte() throws IOException {
+        if (bufferPosition == bufferLength) {
+            bufferLength = inflated.read(buffer);
+            bufferPosition = 0;
+            if (bufferLength <= 0) {
+                throw new EOFException("Maze stream ended after " + cellsLoaded + " cells");
+            }
+        }
+        return buffer[bufferPosition++] & 0xFF;
+    }
+
+    /**
+     * Reads the rest of the maze into a new graph.
+     * @return a graph holding every passage in the maze
+     * @throws IOException if the stream ends early or cannot be read
+     */
+    public MazeGraph read() throws IOException {
+        return read(new MazeGraph(graphCellCount()));
+    }
+
+    /**
+     * Reads the rest of the maze into an existing graph, which is reset first.
+     * @param graph graph to reuse for the maze
+     * @return the graph passed in, holding every passage in the maze
+     * @throws IOException if the stream ends early or cannot be read
+     */
+    public MazeGraph read(MazeGraph graph) throws IOException {
+        graph.reset(graphCellCount());
+        int[] doors = new int[cols];
+        int current;
+        while ((current = readRow(doors)) != -1) {
+            // Each passage is added once, from the cell south or east of it
+            for (int col = 0; col < cols; col++) {
+                int cell = current * cols + col;
+                if (current > 0 && (doors[col] & (1 << Cell.NORTH)) != 0) {
+                    graph.addEdge(cell, cell - cols);
+                }
+                if (col > 0 && (doors[col] & (1 << Cell.WEST)) != 0) {
+                    graph.addEdge(cell, cell - 1);
+                }
+            }
+        }
+        return graph;
+    }
+
+    // Number of cells, checked to fit in a MazeGraph
+    private int graphCellCount() throws IOException {
+        long cellCount = (long) rows * cols;
+        if (cellCount > Integer.MAX_VALUE) {
+            throw new IOException("Maze with " + cellCount + " cells is too large for a MazeGraph");
+        }
+        return (int) cellCount;
+    }
+
+    @Override
+    public void close() throws IOException {
+        inflater.end();
+        in.close();
+    }
+
+    @Override
+    public String toString() {
+        return "MazeReader{" + rows + "x" + cols + "}";
+    }
+}
@@ -0,0 +1,169 @@
+package generation;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * A frozen copy of a maze that any number of threads can solve at the same time.
+ *
+ * The passages are kept in compressed sparse row form: the neighbours of cell c are
+ * neighbors[offsets[c]] up to neighbors[offsets[c + 1]], with cells in row-major order.
+ * Both arrays are final and never change after the constructor, so a snapshot can be
+ * handed to other threads without locking. Searching is done by a SnapshotSolver,
+ * which owns its scratch buffers: solve() borrows the calling thread's solver from
+ * ScratchBuffers, or a thread can hold its own from newSolver().
+ *
+ * A perfect maze is a tree, so the snapshot of one also roots the tree at cell 0 and
+ * keeps each cell's parent and depth. The path between two cells then runs up from
+ * both of them to where they meet, and solving takes time in proportion to the length
+ * of the path instead of the number of cells searched. Mazes with loops or unreachable
+ * cells are solved with Breadth-First Search.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public final class MazeSnapshot {
+    // Fields
+    private final int[] offsets;
+    private final int[] neighbors;
+    private final int[] treeParents; // Parent of each cell in the tree rooted at 0, null if not a tree
+    private final int[] depths;      // Distance of each cell from cell 0, null if not a tree
+
+    // Copies the adjacency lists of a graph, see MazeGraph.snapshot()
+    MazeSnapshot(MazeGraph graph) {
+        int vertexCount = graph.getVertexCount();
+        offsets = new int[vertexCount + 1];
+        for (int cell = 0; cell < vertexCount; cell++) {
+            int degree = graph.degree(graph.internal(cell));
+            // Solvers remember the way back as a byte index into the neighbours
+            if (degree > Byte.MAX_VALUE) {
+                throw new IllegalArgumentException("Cell " + cell + " has " + degree + " neighbours, at most "
+                        + Byte.MAX_VALUE + " are supported");
+            }
+            offsets[cell + 1] = offsets[cell] + degree;
+        }
+        neighbors = new int[offsets[vertexCount]];
+        for (int cell = 0; cell < vertexCount; cell++) {
+            int index = offsets[cell];
+            for (int slot = graph.firstSlot(graph.internal(cell)); slot != -1; slot = graph.nextSlot(slot)) {
+                neighbors[index++] = graph.external(graph.slotTarget(slot));
+            }
+        }
+
+        int[][] tree = vertexCount > 0 && getEdgeCount() == vertexCount - 1 ? rootTree() : null;
+        treeParents = tree == null ? null : tree[0];
+        depths = tree == null ? null : tree[1];
+    }
+
+    // Breadth-First Search from cell 0 recording parents and depths, or null if some
+    // cell cannot be reached (and the maze is not a tree)
+    private int[][] rootTree() {
+        int vertexCount = getVertexCount();
+        int[] parents = new int[vertexCount];
+        int[] levels = new int[vertexCount];
+        int[] queue = new int[vertexCount];
+        Arrays.fill(parents, -1);
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = 0;
+        parents[0] = 0;
+        while (head < tail) {
+            int current = queue[head++];
+            for (int index = offsets[current]; index < offsets[current + 1]; index++) {
+                int neighbor = neighbors[index];
+                if (parents[neighbor] == -1) {
+                    parents[neighbor] = current;
+                    levels[neighbor] = levels[current] + 1;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+        return tail == vertexCount ? new int[][]{parents, levels} : null;
+    }
+
+    /**
+     * Finds a shortest path with the calling thread's solver.
+     * @param source the cell to start from
+     * @param target the cell to finish at
+     * @param path array of at least getVertexCount() entries, filled with the cells on
+     *             the path from source to target
+     * @return the number of cells on the path, or 0 if target cannot be reached
+     */
+    public int solve(int source, int target, int[] path) {
+        SnapshotSolver solver = ScratchBuffers.current().snapshotSolver();
+        solver.bind(this);
+        try {
+            return solver.solve(source, target, path);
+        }
+        finally {
+            solver.bind(null); // The pool must not keep the snapshot alive
+        }
+    }
+
+    /**
+     * Creates a solver with its own scratch buffers, for use by one thread at a time.
+     * @return a new solver for this maze
+     */
+    public SnapshotSolver newSolver() {
+        return new SnapshotSolver(this);
+    }
+
+    /**
+     * Returns whether the maze is perfect, so paths are found by walking up its tree.
+     * @return true if every cell is reachable and there are no loops
+     */
+    public boolean isTree() {
+        return treeParents != null;
+    }
+
+    public int getVertexCount() {
+        return offsets.length - 1;
+    }
+
+    public int getEdgeCount() {
+        return neighbors.length / 2;
+    }
+
+    /**
+     * Returns the number of passages out of a cell.
+     * @param cell a row-major cell
+     * @return the number of neighbours the cell is joined to
+     */
+    public int getDegree(int cell) {
+        Objects.checkIndex(cell, getVertexCount());
+        return offsets[cell + 1] - offsets[cell];
+    }
+
+    /**
+     * Returns one of the cells a cell is joined to.
+     * @param cell a row-major cell
+     * @param index which neighbour, from 0 to getDegree(cell) - 1
+     * @return the row-major neighbour
+     */
+    public int getNeighbor(int cell, int index) {
+        Objects.checkIndex(index, getDegree(cell));
+        return neighbors[offsets[cell] + index];
+    }
+
+    // Raw arrays for SnapshotSolver, which must not change them
+    int[] offsets() {
+        return offsets;
+    }
+
+    int[] neighbors() {
+        return neighbors;
+    }
+
+    int[] treeParents() {
+        return treeParents;
+    }
+
+    int[] depths() {
+        return depths;
+    }
+
+    @Override
+    public String toString() {
+        return "MazeSnapshot{" + getVertexCount() + " cells, " + getEdgeCount() + " edges}";
+    }
+}
@@ -0,0 +1,190 @@
+package generation;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * A depth-first or breadth-first walk through a maze that runs one cell at a time, as
+ * the caller asks for the next one.
+ *
+ * Cells come out in the order the search visits them, starting with the start cell and
+ * ending with the target (or with the last reachable cell when there is no target). A
+ * caller that stops early, for example once it finds a cell it was looking for, never
+ * pays for the rest of the search: the visited set is a bitmap and the frontier only
+ * grows as far as the search actually gets. The maze must not change during the walk.
+ *
+ * Use Spliterators.spliteratorUnknownSize() to turn a traversal into a stream.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class MazeTraversal implements PrimitiveIterator.OfInt {
+    // Constants
+    private static final int NONE = -1;
+    private static final int INITIAL_FRONTIER = 64;
+
+    // Fields
+    private final MazeGraph graph;
+    private final boolean depthFirst;
+    private final int target;      // Internal cell, or NONE to visit everything reachable
+    private final long[] visited;  // One bit per internal cell
+    private int[] cells;           // DFS: the path to the current cell, BFS: every cell queued
+    private int[] links;           // DFS: next slot to try from each cell, BFS: index of each parent
+    private int head;              // BFS: next queued cell to return
+    private int size;              // Cells on the stack or in the queue
+    private int depth;             // DFS: length of the path to the cell the last nextInt() returned
+    private int pending;           // DFS: the cell nextInt() returns next, or NONE if unknown
+    private boolean done;
+
+    MazeTraversal(MazeGraph graph, boolean depthFirst, int start, int target) {
+        int vertexCount = graph.getVertexCount();
+        if (start < 0 || start >= vertexCount || target < NONE || target >= vertexCount) {
+            throw new IndexOutOfBoundsException("Cells must be from 0 to " + (vertexCount - 1));
+        }
+        this.graph = graph;
+        this.depthFirst = depthFirst;
+        this.target = target == NONE ? NONE : graph.internal(target);
+        this.visited = new long[(vertexCount + Long.SIZE - 1) / Long.SIZE];
+        this.cells = new int[INITIAL_FRONTIER];
+        this.links = new int[INITIAL_FRONTIER];
+
+        int first = graph.internal(start);
+        markVisited(first);
+        if (depthFirst) {
+            pending = first;
+        }
+        else {
+            push(first, NONE);
+        }
+    }
+
+    /**
+     * Returns whether there are more cells to visit.
+     * @return false once the target has been returned or nothing else can be reached
+     */
+    @Override
+    public boolean hasNext() {
+        if (done) {
+            return false;
+        }
+        if (depthFirst) {
+            if (pending == NONE) {
+                pending = advance();
+            }
+            return pending != NONE;
+        }
+        return head < size;
+    }
+
+    /**
+     * Visits the next cell.
+     * @return the row-major index of the cell
+     */
+    @Override
+    public int nextInt() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        int cell;
+        if (depthFirst) {
+            cell = pending;
+            pending = NONE;
+            push(cell, graph.firstSlot(cell));
+            depth = size;
+        }
+        else {
+            cell = cells[head++];
+            // Queue the neighbours now so the order matches the other searches
+            for (int slot = graph.firstSlot(cell); slot != NONE; slot = graph.nextSlot(slot)) {
+                int neighbor = graph.slotTarget(slot);
+                if (!isVisited(neighbor)) {
+                    markVisited(neighbor);
+                    push(neighbor, head - 1);
+                }
+            }
+        }
+        if (cell == target) {
+            done = true;
+        }
+        return graph.external(cell);
+    }
+
+    // Backtracks until a cell on the stack has an unvisited neighbour and returns it
+    private int advance() {
+        while (size > 0) {
+            int top = size - 1;
+            int slot = links[top];
+            while (slot != NONE && isVisited(graph.slotTarget(slot))) {
+                slot = graph.nextSlot(slot);
+            }
+            if (slot != NONE) {
+                links[top] = graph.nextSlot(slot);
+                int neighbor = graph.slotTarget(slot);
+                markVisited(neighbor);
+                return neighbor;
+            }
+            size--; // Dead end
+        }
+        return NONE;
+    }
+
+    /**
+     * Returns the path the search took to reach the cell returned last: for a
+     * breadth-first walk that is a shortest path.
+     * @return row-major cells from the start to the last cell visited, empty before the first
+     */
+    public int[] path() {
+        if (depthFirst) {
+            // Backtracking only lowers size, so the cells below depth are still in place
+            int[] path = new int[depth];
+            for (int i = 0; i < depth; i++) {
+                path[i] = graph.external(cells[i]);
+            }
+            return path;
+        }
+        if (head == 0) {
+            return new int[0];
+        }
+        int length = 0;
+        for (int index = head - 1; index != NONE; index = links[index]) {
+            length++;
+        }
+        int[] path = new int[length];
+        for (int index = head - 1; index != NONE; index = links[index]) {
+            path[--length] = graph.external(cells[index]);
+        }
+        return path;
+    }
+
+    /**
+     * Returns whether the walk has reached its target.
+     * @return true once the target has been returned by nextInt()
+     */
+    public boolean isTargetFound() {
+        return target != NONE && done;
+    }
+
+    private void push(int cell, int link) {
+        if (size == cells.length) {
+            cells = Arrays.copyOf(cells, size * 2);
+            links = Arrays.copyOf(links, size * 2);
+        }
+        cells[size] = cell;
+        links[size] = link;
+        size++;
+    }
+
+    private boolean isVisited(int cell) {
+        return (visited[cell >>> 6] & 1L << cell) != 0;
+    }
+
+    private void markVisited(int cell) {
+        visited[cell >>> 6] |= 1L << cell;
+    }
+
+    @Override
+    public String toString() {
+        return "MazeTraversal{" + (depthFirst ? "depth" : "breadth") + " first, " + size + " on the frontier}";
+    }
+}
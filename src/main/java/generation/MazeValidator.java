@@ -0,0 +1,354 @@
+package generation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Checks that a maze from a file or another process is a proper perfect maze before it
+ * is trusted, in a single linear pass spread over every core.
+ *
+ * A maze is given as the door mask (see MazeGraph.doorMask()) of each row-major cell and
+ * is valid when:
+ * <ul>
+ *     <li>every door is open from both sides,</li>
+ *     <li>the outer border is closed, apart from the entrance (north of cell 0) and the
+ *     exit (south of the last cell), which may be either,</li>
+ *     <li>there are exactly cells - 1 passages between cells,</li>
+ *     <li>and every cell can be reached from every other one.</li>
+ * </ul>
+ *
+ * Row ranges are checked in parallel on the common fork/join pool. Passages are joined
+ * in a concurrent union-find as they are found, so the number of separate regions is
+ * known as soon as the last range is done. Violations are listed in row-major order,
+ * up to a limit.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class MazeValidator {
+    // Constants
+    public static final int DEFAULT_MAX_VIOLATIONS = 10;
+    private static final int MIN_CELLS_PER_TASK = 1 << 16;
+
+    /**
+     * One thing wrong with a maze.
+     */
+    public static class Violation {
+        /**
+         * The kinds of problem a maze can have.
+         */
+        public enum Kind {
+            ONE_SIDED_DOOR,
+            OPEN_BORDER,
+            PASSAGE_COUNT,
+            DISCONNECTED
+        }
+
+        private final Kind kind;
+        private final int cell;
+        private final int direction;
+        private final String message;
+
+        private Violation(Kind kind, int cell, int direction, String message) {
+            this.kind = kind;
+            this.cell = cell;
+            this.direction = direction;
+            this.message = message;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * Returns the cell with the problem.
+         * @return a cell index, or -1 for problems with the maze as a whole
+         */
+        public int getCell() {
+            return cell;
+        }
+
+        /**
+         * Returns the wall of the cell with the problem.
+         * @return Cell.NORTH, EAST, SOUTH or WEST, or -1 for problems with the maze as a whole
+         */
+        public int getDirection() {
+            return direction;
+        }
+
+        @Override
+        public String toString() {
+            return kind + ": " + message;
+        }
+    }
+
+    // Fields
+    private final long passages;
+    private final int regions;
+    private final long violationCount;
+    private final List<Violation> violations;
+
+    private MazeValidator(long passages, int regions, long violationCount, List<Violation> violations) {
+        this.passages = passages;
+        this.regions = regions;
+        this.violationCount = violationCount;
+        this.violations = Collections.unmodifiableList(violations);
+    }
+
+    /**
+     * Validates a maze graph, reporting the default number of violations.
+     * @param graph the maze to check
+     * @param rows number of rows in the maze
+     * @param cols number of columns in the maze
+     * @return the outcome of the checks
+     */
+    public static MazeValidator validate(MazeGraph graph, int rows, int cols) {
+        checkSize(graph.getVertexCount(), rows, cols);
+        int[] doors = new int[rows * cols];
+        Arrays.parallelSetAll(doors, cell -> graph.doorMask(cell, cols));
+        return validate(doors, rows, cols, DEFAULT_MAX_VIOLATIONS);
+    }
+
+    /**
+     * Reads the rest of a maze from a reader and validates it.
+     * @param reader a reader that has not returned any rows yet
+     * @param maxViolations most violations to list
+     * @return the outcome of the checks
+     * @throws IOException if the maze cannot be read
+     */
+    public static MazeValidator validate(MazeReader reader, int maxViolations) throws IOException {
+        int rows = reader.getRows();
+        int cols = reader.getCols();
+        long cellCount = (long) rows * cols;
+        if (cellCount > Integer.MAX_VALUE) {
+            throw new IOException("Maze with " + cellCount + " cells is too large to validate");
+        }
+        int[] doors = new int[(int) cellCount];
+        int[] row = new int[cols];
+        for (int index = reader.readRow(row); index != -1; index = reader.readRow(row)) {
+            System.arraycopy(row, 0, doors, index * cols, cols);
+        }
+        return validate(doors, rows, cols, maxViolations);
+    }
+
+    /**
+     * Validates a maze given as the door mask of each cell.
+     * @param doors the door mask of each row-major cell
+     * @param rows number of rows in the maze
+     * @param cols number of columns in the maze
+     * @param maxViolations most violations to list
+     * @return the outcome of the checks
+     */
+    public static MazeValidator validate(int[] doors, int rows, int cols, int maxViolations) {
+        checkSize(doors.length, rows, cols);
+        int cellCount = rows * cols;
+        ConcurrentDisjointSets sets = new ConcurrentDisjointSets(cellCount);
+        int rowsPerTask = Math.max(1, MIN_CELLS_PER_TASK / cols);
+        RangeReport report = ForkJoinPool.commonPool()
+                .invoke(new RangeTask(doors, rows, cols, sets, 0, rows, rowsPerTask, maxViolations));
+
+        // Each union that joined two sets removed one region
+        int regions = (int) (cellCount - report.joins);
+        if (report.passages != cellCount - 1) {
+            report.add(new Violation(Violation.Kind.PASSAGE_COUNT, -1, -1, "found " + report.passages
+                    + " passages, a perfect maze of " + cellCount + " cells has " + (cellCount - 1)), maxViolations);
+        }
+        if (regions > 1) {
+            report.add(new Violation(Violation.Kind.DISCONNECTED, -1, -1, "the maze is split into "
+                    + regions + " regions that cannot reach each other"), maxViolations);
+        }
+        return new MazeValidator(report.passages, regions, report.violationCount, report.violations);
+    }
+
+    private static void checkSize(long cells, int rows, int cols) {
+        if (rows <= 0 || cols <= 0 || (long) rows * cols != cells) {
+            throw new IllegalArgumentException("A " + rows + "x" + cols + " maze cannot have " + cells + " cells");
+        }
+    }
+
+    /**
+     * Returns whether the maze passed every check.
+     * @return true if the maze is valid
+     */
+    public boolean isValid() {
+        return violationCount == 0;
+    }
+
+    /**
+     * Returns the first violations found, in row-major order, followed by any problems
+     * with the maze as a whole.
+     * @return up to the requested number of violations
+     */
+    public List<Violation> getViolations() {
+        return violations;
+    }
+
+    /**
+     * Returns the total number of violations, including those not listed.
+     * @return the number of violations
+     */
+    public long getViolationCount() {
+        return violationCount;
+    }
+
+    /**
+     * Returns the number of passages between cells, counting one-sided doors.
+     * @return the number of passages
+     */
+    public long getPassages() {
+        return passages;
+    }
+
+    /**
+     * Returns the number of groups of cells that can reach each other.
+     * @return 1 for a connected maze
+     */
+    public int getRegions() {
+        return regions;
+    }
+
+    // Results for one range of rows, merged in order as the tasks join
+    private static class RangeReport {
+        private long passages;
+        private long joins;
+        private long violationCount;
+        private List<Violation> violations = new ArrayList<>();
+
+        private void add(Violation violation, int maxViolations) {
+            if (violations.size() < maxViolations) {
+                violations.add(violation);
+            }
+            violationCount++;
+        }
+
+        private RangeReport merge(RangeReport later, int maxViolations) {
+            passages += later.passages;
+            joins += later.joins;
+            violationCount += later.violationCount;
+            for (Violation violation : later.violations) {
+                if (violations.size() == maxViolations) {
+                    break;
+                }
+                violations.add(violation);
+            }
+            return this;
+        }
+    }
+
+    // Splits the rows in half until the range is small enough to check directly
+    private static class RangeTask extends RecursiveTask<RangeReport> {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] doors;
+        private final int rows;
+        private final int cols;
+        private final ConcurrentDisjointSets sets;
+        private final int firstRow;
+        private final int lastRow;
+        private final int rowsPerTask;
+        private final int maxViolations;
+
+        private RangeTask(int[] doors, int rows, int cols, ConcurrentDisjointSets sets, int firstRow,
+                          int lastRow, int rowsPerTask, int maxViolations) {
+            this.doors = doors;
+            this.rows = rows;
+            this.cols = cols;
+            this.sets = sets;
+            this.firstRow = firstRow;
+            this.lastRow = lastRow;
+            this.rowsPerTask = rowsPerTask;
+            this.maxViolations = maxViolations;
+        }
+
+        @Override
+        protected RangeReport compute() {
+            if (lastRow - firstRow <= rowsPerTask) {
+                return check();
+            }
+            int middle = (firstRow + lastRow) >>> 1;
+            RangeTask top = new RangeTask(doors, rows, cols, sets, firstRow, middle, rowsPerTask, maxViolations);
+            RangeTask bottom = new RangeTask(doors, rows, cols, sets, middle, lastRow, rowsPerTask, maxViolations);
+            top.fork();
+            RangeReport bottomReport = bottom.compute();
+            return top.join().merge(bottomReport, maxViolations);
+        }
+
+        private RangeReport check() {
+            RangeReport report = new RangeReport();
+            int exit = rows * cols - 1;
+            for (int row = firstRow; row < lastRow; row++) {
+                for (int col = 0; col < cols; col++) {
+                    int cell = row * cols + col;
+                    int cellDoors = doors[cell];
+
+                    // Each cell owns its east and south walls, the border has no neighbour
+                    if (row == 0 && cell != 0) {
+                        checkBorder(report, cell, cellDoors, Cell.NORTH);
+                    }
+                    if (col == 0) {
+                        checkBorder(report, cell, cellDoors, Cell.WEST);
+                    }
+                    if (col == cols - 1) {
+                        checkBorder(report, cell, cellDoors, Cell.EAST);
+                    }
+                    else {
+                        checkPassage(report, cell, cellDoors, Cell.EAST, cell + 1);
+                    }
+                    if (row == rows - 1) {
+                        if (cell != exit) {
+                            checkBorder(report, cell, cellDoors, Cell.SOUTH);
+                        }
+                    }
+                    else {
+                        checkPassage(report, cell, cellDoors, Cell.SOUTH, cell + cols);
+                    }
+                }
+            }
+            return report;
+        }
+
+        private void checkBorder(RangeReport report, int cell, int cellDoors, int direction) {
+            if ((cellDoors & 1 << direction) != 0) {
+                report.add(new Violation(Violation.Kind.OPEN_BORDER, cell, direction, "cell " + cell
+                        + " has a door in the " + name(direction) + " border"), maxViolations);
+            }
+        }
+
+        private void checkPassage(RangeReport report, int cell, int cellDoors, int direction, int neighbor) {
+            int opposite = (direction + 2) % 4;
+            boolean open = (cellDoors & 1 << direction) != 0;
+            boolean openBack = (doors[neighbor] & 1 << opposite) != 0;
+            if (open != openBack) {
+                int from = open ? cell : neighbor;
+                int wall = open ? direction : opposite;
+                report.add(new Violation(Violation.Kind.ONE_SIDED_DOOR, from, wall, "cell " + from + " has a "
+                        + name(wall) + " door that cell " + (open ? neighbor : cell) + " does not"), maxViolations);
+            }
+            if (open || openBack) {
+                report.passages++;
+                if (sets.union(cell, neighbor)) {
+                    report.joins++;
+                }
+            }
+        }
+
+        private static String name(int direction) {
+            switch (direction) {
+                case Cell.NORTH: return "north";
+                case Cell.EAST: return "east";
+                case Cell.SOUTH: return "south";
+                default: return "west";
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MazeValidator{" + (isValid() ? "valid" : violationCount + " violations " + violations) + "}";
+    }
+}
@@ -0,0 +1,204 @@
+package generation;
+
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Objects;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Streams a maze to an OutputStream in a compact wire format, one cell at a time.
+ *
+ * In a maze each cell shares its south wall with the north wall of the cell below it,
+ * and its east wall with the west wall of the cell beside it. Only the north and west
+ * doors of each cell are written (2 bits per cell, 4 cells per byte, row-major order)
+ * and the packed bits go through a Deflate stage. The format is:
+ *
+ * <pre>
+ * int  magic    0x4D415A45 ("MAZE")
+ * byte version  1
+ * int  rows
+ * int  cols
+ * ...  deflated cell bits, bit 0 = north door, bit 1 = west door
+ * </pre>
+ *
+ * The header is not compressed so a reader can reject a stream before inflating it.
+ * A north door on cell 0 marks the entrance, the exit is always the south wall of the
+ * last cell and is not stored.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class MazeWriter implements Closeable {
+    // Constants
+    static final int MAGIC = 0x4D415A45;
+    static final int VERSION = 1;
+    // Header of MappedMaze files, which hold the cells uncompressed in a different layout
+    static final int MAPPED_MAGIC = 0x4D5A4D50; // "MZMP"
+    static final int MAPPED_VERSION = 1;
+    // Packing of the doors of each cell, also used by MazeReader, OffHeapMaze and MappedMaze
+    static final int NORTH_BIT = 1;
+    static final int WEST_BIT = 2;
+    static final int CELLS_PER_BYTE = 4;
+    static final int BUFFER_SIZE = 8192;
+
+    // Fields
+    private final OutputStream out;
+    private final Deflater deflater;
+    private final boolean ownsDeflater;
+    private final DeflaterOutputStream deflated;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private final long cellCount;
+    private final int cols;
+    private int buffered = 0;
+    private long written = 0;
+    private int pending = 0;
+    private boolean finished = false;
+
+    /**
+     * Starts a new maze on the stream using the default compression level.
+     * @param out stream to write to, closed when this writer is closed
+     * @param rows number of rows in the maze
+     * @param cols number of columns in the maze
+     * @throws IOException if the header cannot be written
+     */
+    public MazeWriter(OutputStream out, int rows, int cols) throws IOException {
+        this(out, rows, cols, Deflater.DEFAULT_COMPRESSION);
+    }
+
+    /**
+     * Starts a new maze on the stream.
+     * @param out stream to write to, closed when this writer is closed
+     * @param rows number of rows in the maze
+     * @param cols number of columns in the maze
+     * @param level Deflater compression level from 0 - 9
+     * @throws IOException if the header cannot be written
+     */
+    public MazeWriter(OutputStream out, int rows, int cols, int level) throws IOException {
+        this(out, rows, cols, level, null);
+    }
+
+    /**
+     * Starts a new maze on the stream, compressing it with a Deflater owned by the
+     * caller. This lets one Deflater be reused for many mazes without allocating new
+     * native buffers each time. The Deflater must be new or reset(), and is not ended
+     * when this writer finishes.
+     * @param out stream to write to, closed when this writer is closed
+     * @param rows number of rows in the maze
+     * @param cols number of columns in the maze
+     * @param deflater Deflater to compress the cells with
+     * @throws IOException if the header cannot be written
+     */
+    public MazeWriter(OutputStream out, int rows, int cols, Deflater deflater) throws IOException {
+        this(out, rows, cols, 0, Objects.requireNonNull(deflater, "deflater"));
+    }
+
+    // Uses the shared Deflater if there is one, or a new one at the given level
+    private MazeWriter(OutputStream out, int rows, int cols, int level, Deflater shared) throws IOException {
+        if (rows <= 0 || cols <= 0) {
+            throw new IllegalArgumentException("Maze must have at least one cell: " + rows + "x" + cols);
+        }
+        this.out = out;
+        this.cellCount = (long) rows * cols;
+        this.cols = cols;
+
+        DataOutputStream header = new DataOutputStream(out);
+        header.writeInt(MAGIC);
+        header.writeByte(VERSION);
+        header.writeInt(rows);
+        header.writeInt(cols);
+        header.flush();
+
+        // Created after the header so a failed write does not leave it unreleased
+        ownsDeflater = shared == null;
+        deflater = ownsDeflater ? new Deflater(level) : shared;
+        deflated = new DeflaterOutputStream(out, deflater);
+    }
+
+    /**
+     * Writes the next cell in row-major order. Only the north and west doors are
+     * kept, the south and east doors are implied by the neighbouring cells.
+     * @param doors bit mask of the open walls of the cell, as returned by
+     *              MazeGraph.doorMask()
+     * @throws IOException if the cell cannot be written
+     */
+    public void writeCell(int doors) throws IOException {
+        if (written == cellCount) {
+            throw new IllegalStateException("All " + cellCount + " cells have already been written");
+        }
+        int bits = ((doors >> Cell.NORTH) & 1) * NORTH_BIT | ((doors >> Cell.WEST) & 1) * WEST_BIT;
+        int shift = (int) (written % CELLS_PER_BYTE) * 2;
+        pending |= bits << shift;
+        written++;
+
+        // Flush each byte once all of its cells are known
+        if (written % CELLS_PER_BYTE == 0 || written == cellCount) {
+            buffer[buffered++] = (byte) pending;
+            pending = 0;
+            if (buffered == BUFFER_SIZE) {
+                flushBuffer();
+            }
+        }
+    }
+
+    /**
+     * Writes every cell of a graph, opening the entrance on cell 0.
+     * @param graph the maze to write, with rows * cols cells
+     * @throws IOException if the maze cannot be written
+     */
+    public void write(MazeGraph graph) throws IOException {
+        if (graph.getVertexCount() != cellCount) {
+            throw new IllegalArgumentException("Graph has " + graph.getVertexCount()
+                    + " cells, expected " + cellCount);
+        }
+        writeCell(graph.doorMask(0, cols) | 1 << Cell.NORTH);
+        for (int cell = 1; cell < cellCount; cell++) {
+            writeCell(graph.doorMask(cell, cols));
+        }
+    }
+
+    /**
+     * Finishes the compressed data without closing the underlying stream, so more
+     * data can follow the maze.
+     * @throws IOException if the maze cannot be finished
+     */
+    public void finish() throws IOException {
+        if (finished) {
+            return;
+        }
+        if (written != cellCount) {
+            throw new IllegalStateException("Only " + written + " of " + cellCount + " cells were written");
+        }
+        flushBuffer();
+        deflated.finish();
+        if (ownsDeflater) {
+            deflater.end();
+        }
+        finished = true;
+    }
+
+    private void flushBuffer() throws IOException {
+        deflated.write(buffer, 0, buffered);
+        buffered = 0;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            finish();
+        }
+        finally {
+            if (!finished && ownsDeflater) {
+                deflater.end(); // finish() failed before releasing it
+            }
+            out.close();
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MazeWriter{" + written + "/" + cellCount + "}";
+    }
+}
@@ -0,0 +1,86 @@
+package generation;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Fixed-size block of native memory addressed by long byte offsets.
+ *
+ * A single ByteBuffer is limited to 2^31 bytes, so the block is split into direct buffer
+ * segments. The garbage collector never scans the contents, and the memory is released
+ * when the buffer becomes unreachable.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+final class OffHeapBuffer {
+    // Constants
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+
+    // Fields
+    private final ByteBuffer[] segments;
+    private final long size;
+
+    /**
+     * Allocates a zeroed block of native memory.
+     * @param size number of bytes
+     */
+    OffHeapBuffer(long size) {
+        this.size = size;
+        int segmentCount = (int) ((size + SEGMENT_MASK) >>> SEGMENT_BITS);
+        segments = new ByteBuffer[Math.max(segmentCount, 1)];
+        for (int i = 0; i < segments.length; i++) {
+            long segmentSize = Math.min(size - ((long) i << SEGMENT_BITS), 1L << SEGMENT_BITS);
+            segments[i] = ByteBuffer.allocateDirect((int) segmentSize).order(ByteOrder.nativeOrder());
+        }
+    }
+
+    long size() {
+        return size;
+    }
+
+    byte getByte(long offset) {
+        return segments[(int) (offset >>> SEGMENT_BITS)].get((int) (offset & SEGMENT_MASK));
+    }
+
+    void putByte(long offset, byte value) {
+        segments[(int) (offset >>> SEGMENT_BITS)].put((int) (offset & SEGMENT_MASK), value);
+    }
+
+    // Segments are a multiple of 4 bytes, so an aligned int never spans two of them
+    int getInt(long offset) {
+        return segments[(int) (offset >>> SEGMENT_BITS)].getInt((int) (offset & SEGMENT_MASK));
+    }
+
+    void putInt(long offset, int value) {
+        segments[(int) (offset >>> SEGMENT_BITS)].putInt((int) (offset & SEGMENT_MASK), value);
+    }
+
+    /**
+     * Sets the first bytes of the block to a value.
+     * @param length number of bytes to fill
+     * @param value the byte to write
+     */
+    void fill(long length, byte value) {
+        for (int i = 0; length > 0; i++) {
+            ByteBuffer segment = segments[i];
+            int count = (int) Math.min(length, segment.capacity());
+            // Write longs where possible, the block may be gigabytes long
+            long pattern = (value & 0xFFL) * 0x0101010101010101L;
+            int position = 0;
+            for (; position + Long.BYTES <= count; position += Long.BYTES) {
+                segment.putLong(position, pattern);
+            }
+            for (; position < count; position++) {
+                segment.put(position, value);
+            }
+            length -= count;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "OffHeapBuffer{" + size + " bytes}";
+    }
+}
@@ -0,0 +1,156 @@
+package generation;
+
+/**
+ * Union-find over long element indices, with the parent of each element stored in native
+ * memory so sets of billions of elements neither fit on nor burden the heap.
+ *
+ * Works like DisjointSets (union by height, roots store their height), but each parent
+ * is an unsigned 32 bit value: the top MAX_HEIGHT values mark roots and their heights,
+ * leaving room for up to MAX_ELEMENTS elements at 4 bytes each. find() is iterative with
+ * path halving, so deep trees cannot overflow the stack.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class OffHeapDisjointSets {
+    // Constants
+    public static final int MAX_HEIGHT = 64;
+    public static final long MAX_ELEMENTS = (1L << 32) - MAX_HEIGHT;
+    private static final long ROOT_BASE = MAX_ELEMENTS; // Unsigned values from here up are roots
+    private static final long UNSIGNED = 0xFFFFFFFFL;
+
+    // Fields
+    private final OffHeapBuffer parents;
+    private final long size;
+
+    /**
+     * Creates a new data structure with the requested number of sets.
+     * @param numSets the number of sets, up to MAX_ELEMENTS
+     */
+    public OffHeapDisjointSets(long numSets) {
+        this(new OffHeapBuffer(requiredBytes(checkSize(numSets))), numSets);
+    }
+
+    // Uses memory owned by someone else, which must hold at least requiredBytes(numSets)
+    OffHeapDisjointSets(OffHeapBuffer parents, long numSets) {
+        checkSize(numSets);
+        this.parents = parents;
+        this.size = numSets;
+        reset();
+    }
+
+    // Checked before any memory is allocated for the sets
+    private static long checkSize(long numSets) {
+        if (numSets < 0 || numSets > MAX_ELEMENTS) {
+            throw new IllegalArgumentException("Cannot track " + numSets + " sets, the limit is " + MAX_ELEMENTS);
+        }
+        return numSets;
+    }
+
+    /**
+     * Returns the native memory needed for a number of sets.
+     * @param numSets the number of sets
+     * @return number of bytes
+     */
+    public static long requiredBytes(long numSets) {
+        return numSets * Integer.BYTES;
+    }
+
+    /**
+     * Returns every element to its own set of height 1.
+     */
+    public void reset() {
+        parents.fill(requiredBytes(size), (byte) 0xFF); // Unsigned max is a root of height 1
+    }
+
+    /**
+     * Returns the number of elements tracked.
+     * @return the number of elements
+     */
+    public long size() {
+        return size;
+    }
+
+    private long parent(long element) {
+        return parents.getInt(element * Integer.BYTES) & UNSIGNED;
+    }
+
+    private void setParent(long element, long parent) {
+        parents.putInt(element * Integer.BYTES, (int) parent);
+    }
+
+    // Height of the tree under a root
+    private long height(long root) {
+        return (1L << 32) - parent(root);
+    }
+
+    /**
+     * Finds the representative element of the set the given element belongs to.
+     * @param element the element to search from
+     * @return the representative of a set
+     */
+    public long find(long element) {
+        if (element < 0 || element >= size) {
+            throw new IndexOutOfBoundsException("Element " + element + " out of bounds for " + size + " sets");
+        }
+        long current = element;
+        while (true) {
+            long parent = parent(current);
+            if (parent >= ROOT_BASE) {
+                return current;
+            }
+            long grandParent = parent(parent);
+            if (grandParent >= ROOT_BASE) {
+                return parent;
+            }
+            // Point at the grandparent, halving the path each time it is walked
+            setParent(current, grandParent);
+            current = grandParent;
+        }
+    }
+
+    /**
+     * Joins together two sets given an element from each set.
+     * @param first the first element
+     * @param second the second element
+     * @return true if the two sets were joined, or false if both elements
+     * are from the same set
+     */
+    public boolean union(long first, long second) {
+        long firstRoot = find(first);
+        long secondRoot = find(second);
+        if (firstRoot == secondRoot) {
+            return false;
+        }
+
+        long firstHeight = height(firstRoot);
+        long secondHeight = height(secondRoot);
+        if (firstHeight > secondHeight) {
+            setParent(secondRoot, firstRoot);
+        }
+        else if (secondHeight > firstHeight) {
+            setParent(firstRoot, secondRoot);
+        }
+        else {
+            //just pick one and increase height of tree
+            setParent(secondRoot, firstRoot);
+            setParent(firstRoot, (1L << 32) - (firstHeight + 1));
+        }
+        return true;
+    }
+
+    /**
+     * Returns true if the given elements belong to the same set.
+     * @param first the first element
+     * @param second the second element
+     * @return true if both elements are from the same set
+     */
+    public boolean sameSet(long first, long second) {
+        return find(first) == find(second);
+    }
+
+    @Override
+    public String toString() {
+        return "OffHeapDisjointSets{" + size + " sets}";
+    }
+}
@@ -0,0 +1,293 @@
+package generation;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.function.LongConsumer;
+
+import static generation.MazeWriter.CELLS_PER_BYTE;
+import static generation.MazeWriter.NORTH_BIT;
+import static generation.MazeWriter.WEST_BIT;
+
+/**
+ * A rectangular maze stored entirely in native memory, for mazes with billions of cells.
+ *
+ * Walls take 2 bits per cell (the north and west doors, as in the MazeWriter format).
+ * A second block of 4 bytes per cell holds the disjoint sets while generating and is
+ * reused for the solver afterwards, so the whole maze runs in exactly requiredBytes()
+ * of native memory, allocated up front. Cells are row-major long indices
+ * (index = row * cols + col).
+ *
+ * The JVM limits direct memory to the heap size unless -XX:MaxDirectMemorySize is set.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class OffHeapMaze implements WallGrid {
+    // Constants
+    private static final int DIRECTIONS = 4;
+
+    // Fields
+    private final int rows;
+    private final int cols;
+    private final long cellCount;
+    private final OffHeapBuffer walls;
+    private final OffHeapBuffer scratch;
+
+    /**
+     * Allocates a maze with every wall standing.
+     * @param rows number of rows in the maze
+     * @param cols number of columns in the maze
+     */
+    public OffHeapMaze(int rows, int cols) {
+        long cellCount = (long) rows * cols;
+        if (rows <= 0 || cols <= 0 || cellCount > OffHeapDisjointSets.MAX_ELEMENTS) {
+            throw new IllegalArgumentException("Invalid maze dimensions " + rows + "x" + cols);
+        }
+        this.rows = rows;
+        this.cols = cols;
+        this.cellCount = cellCount;
+        this.walls = new OffHeapBuffer(wallBytes(cellCount));
+        this.scratch = new OffHeapBuffer(OffHeapDisjointSets.requiredBytes(cellCount));
+    }
+
+    /**
+     * Returns the native memory a maze of the given size allocates.
+     * @param rows number of rows in the maze
+     * @param cols number of columns in the maze
+     * @return number of bytes
+     */
+    public static long requiredBytes(int rows, int cols) {
+        long cellCount = (long) rows * cols;
+        return wallBytes(cellCount) + OffHeapDisjointSets.requiredBytes(cellCount);
+    }
+
+    private static long wallBytes(long cellCount) {
+        return (cellCount + CELLS_PER_BYTE - 1) / CELLS_PER_BYTE;
+    }
+
+    /**
+     * Returns the number of rows in the maze.
+     * @return number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    /**
+     * Returns the number of columns in the maze.
+     * @return number of columns
+     */
+    public int getCols() {
+        return cols;
+    }
+
+    /**
+     * Returns the number of cells in the maze.
+     * @return rows * cols
+     */
+    public long getCellCount() {
+        return cellCount;
+    }
+
+    /**
+     * Generates a new random maze, replacing the current one. Uses the same algorithm as
+     * MazeGenerator, except that cells are visited in a pseudo-random order computed on
+     * the fly, since shuffling billions of cells would need more memory than the maze.
+     * @param random source of randomness for the maze layout
+     */
+    public void generate(Random random) {
+        walls.fill(walls.size(), (byte) 0);
+        OffHeapDisjointSets sets = new OffHeapDisjointSets(scratch, cellCount);
+        int[] neighbors = new int[DIRECTIONS];
+        long edgeCount = 0;
+
+        while (edgeCount < cellCount - 1) {
+            // Each pass visits every cell once in a new random order
+            RandomOrder order = new RandomOrder(cellCount, random);
+            for (long i = 0; i < cellCount && edgeCount < cellCount - 1; i++) {
+                long cell = order.get(i);
+                for (int d = 0; d < DIRECTIONS; d++) {
+                    neighbors[d] = d;
+                }
+                for (int d = DIRECTIONS; d > 0; d--) {
+                    int swap = random.nextInt(d);
+                    int direction = neighbors[d - 1];
+                    neighbors[d - 1] = neighbors[swap];
+                    neighbors[swap] = direction;
+                }
+
+                for (int direction : neighbors) {
+                    long neighbor = neighbor(cell, direction);
+                    if (neighbor != -1 && sets.union(cell, neighbor)) {
+                        open(cell, direction);
+                        edgeCount++;
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns whether a wall of a cell has a door in it.
+     * @param cell a cell index
+     * @param direction Cell.NORTH, EAST, SOUTH or WEST
+     * @return true if the wall is open
+     */
+    public boolean isOpen(long cell, int direction) {
+        switch (direction) {
+            case Cell.NORTH:
+                return (bits(cell) & NORTH_BIT) != 0;
+            case Cell.WEST:
+                return (bits(cell) & WEST_BIT) != 0;
+            case Cell.SOUTH:
+                return cell + cols < cellCount && (bits(cell + cols) & NORTH_BIT) != 0;
+            case Cell.EAST:
+                return (cell + 1) % cols != 0 && (bits(cell + 1) & WEST_BIT) != 0;
+            default:
+                return false;
+        }
+    }
+
+    private int bits(long cell) {
+        int shift = (int) (cell % CELLS_PER_BYTE) * 2;
+        return (walls.getByte(cell / CELLS_PER_BYTE) >> shift) & (NORTH_BIT | WEST_BIT);
+    }
+
+    // Opens a wall, stored on whichever of the two cells keeps it
+    private void open(long cell, int direction) {
+        switch (direction) {
+            case Cell.NORTH: setBit(cell, NORTH_BIT); break;
+            case Cell.WEST: setBit(cell, WEST_BIT); break;
+            case Cell.SOUTH: setBit(cell + cols, NORTH_BIT); break;
+            case Cell.EAST: setBit(cell + 1, WEST_BIT); break;
+            default: break;
+        }
+    }
+
+    private void setBit(long cell, int bit) {
+        long offset = cell / CELLS_PER_BYTE;
+        int shift = (int) (cell % CELLS_PER_BYTE) * 2;
+        walls.putByte(offset, (byte) (walls.getByte(offset) | bit << shift));
+    }
+
+    /**
+     * Solves the maze with Depth-First Search from the entrance (cell 0) to the exit
+     * (the last cell). Only works on perfect mazes, such as those from generate().
+     *
+     * The search keeps no stack or visited set: each cell only remembers which direction
+     * it was entered from (2 bits, in the memory the disjoint sets used), which is enough
+     * to backtrack through a tree.
+     * @param path told about every cell on the path, from the exit back to the entrance
+     * @return the number of cells on the path, or 0 if the exit cannot be reached
+     */
+    public long solve(LongConsumer path) {
+        long target = cellCount - 1;
+        long cell = 0;
+        int cameFrom = Cell.NORTH; // The entrance is through the north wall
+        setCameFrom(cell, cameFrom);
+        int direction = (cameFrom + 1) % DIRECTIONS;
+
+        while (cell != target) {
+            // Try the remaining doors, in order, until back at the way in
+            while (direction != cameFrom && !isOpen(cell, direction)) {
+                direction = (direction + 1) % DIRECTIONS;
+            }
+            if (direction != cameFrom) {
+                cell = neighbor(cell, direction);
+                cameFrom = (direction + 2) % DIRECTIONS;
+                setCameFrom(cell, cameFrom);
+                direction = (cameFrom + 1) % DIRECTIONS;
+            }
+            else if (cell == 0) {
+                return 0; // Dead end all the way back to the entrance
+            }
+            else {
+                // Back up and carry on with the parent's next door
+                int back = cameFrom;
+                cell = neighbor(cell, back);
+                cameFrom = cameFrom(cell);
+                direction = ((back + 2) + 1) % DIRECTIONS;
+            }
+        }
+
+        long length = 0;
+        for (long current = target; ; current = neighbor(current, cameFrom(current))) {
+            path.accept(current);
+            length++;
+            if (current == 0) {
+                return length;
+            }
+        }
+    }
+
+    private int cameFrom(long cell) {
+        int shift = (int) (cell % CELLS_PER_BYTE) * 2;
+        return (scratch.getByte(cell / CELLS_PER_BYTE) >> shift) & 3;
+    }
+
+    private void setCameFrom(long cell, int direction) {
+        long offset = cell / CELLS_PER_BYTE;
+        int shift = (int) (cell % CELLS_PER_BYTE) * 2;
+        int packed = scratch.getByte(offset) & ~(3 << shift);
+        scratch.putByte(offset, (byte) (packed | direction << shift));
+    }
+
+    /**
+     * Writes the maze in row-major order, opening the entrance on cell 0.
+     * @param writer a writer started with the same rows and columns
+     * @throws IOException if the maze cannot be written
+     */
+    public void write(MazeWriter writer) throws IOException {
+        writer.writeCell(doorMask(0) | 1 << Cell.NORTH);
+        for (long cell = 1; cell < cellCount; cell++) {
+            writer.writeCell(doorMask(cell));
+        }
+    }
+
+    // Bijection over 0 to size - 1 computed on demand, using a small Feistel network over
+    // the next even power of two and skipping values that land past the end
+    private static class RandomOrder {
+        private static final int ROUNDS = 4;
+
+        private final long size;
+        private final int halfBits;
+        private final long halfMask;
+        private final long[] keys = new long[ROUNDS];
+
+        private RandomOrder(long size, Random random) {
+            this.size = size;
+            int bits = Math.max(2, 64 - Long.numberOfLeadingZeros(size - 1));
+            this.halfBits = (bits + 1) / 2;
+            this.halfMask = (1L << halfBits) - 1;
+            for (int i = 0; i < ROUNDS; i++) {
+                keys[i] = random.nextLong();
+            }
+        }
+
+        private long get(long index) {
+            long value = index;
+            do {
+                value = permute(value);
+            } while (value >= size);
+            return value;
+        }
+
+        private long permute(long value) {
+            long left = value >>> halfBits;
+            long right = value & halfMask;
+            for (long key : keys) {
+                long mixed = (right ^ key) * 0x9E3779B97F4A7C15L;
+                long next = left ^ ((mixed ^ mixed >>> 29) & halfMask);
+                left = right;
+                right = next;
+            }
+            return left << halfBits | right;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "OffHeapMaze{" + rows + "x" + cols + "}";
+    }
+}
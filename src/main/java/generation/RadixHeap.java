@@ -0,0 +1,121 @@
+package generation;
+
+import java.util.Arrays;
+
+/**
+ * Monotone priority queue of int values keyed by non-negative long priorities, for
+ * searches like Dijkstra's algorithm that never push a key smaller than the last one
+ * popped.
+ *
+ * Entries are kept in 65 buckets by the highest bit in which their key differs from the
+ * last key popped. Popping empties the first non-empty bucket into the lower buckets
+ * around its smallest key, and since each entry can only move to lower buckets it is
+ * moved at most 64 times, so pushes are O(1) and pops are amortized O(log C) for keys
+ * up to C. Buckets are primitive arrays that are kept between uses.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+final class RadixHeap {
+    // Constants
+    private static final int BUCKETS = Long.SIZE + 1;
+    private static final int INITIAL_BUCKET_SIZE = 16;
+
+    // Fields
+    private final long[][] keys = new long[BUCKETS][INITIAL_BUCKET_SIZE];
+    private final int[][] values = new int[BUCKETS][INITIAL_BUCKET_SIZE];
+    private final int[] sizes = new int[BUCKETS];
+    private long last;
+    private int size;
+
+    /**
+     * Removes every entry and allows keys from 0 again.
+     */
+    void clear() {
+        Arrays.fill(sizes, 0);
+        last = 0;
+        size = 0;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * Adds an entry.
+     * @param key the priority, no smaller than the last key popped
+     * @param value the value to store
+     */
+    void push(long key, int value) {
+        if (key < last) {
+            throw new IllegalArgumentException("Key " + key + " is smaller than the last key popped " + last);
+        }
+        add(bucket(key), key, value);
+        size++;
+    }
+
+    /**
+     * Removes an entry with the smallest key. The key is then available from lastKey().
+     * @return the value of the entry
+     */
+    int pop() {
+        if (size == 0) {
+            throw new IllegalStateException("Heap is empty");
+        }
+        if (sizes[0] == 0) {
+            // Find the smallest key in the first bucket with anything in it
+            int bucket = 1;
+            while (sizes[bucket] == 0) {
+                bucket++;
+            }
+            long[] bucketKeys = keys[bucket];
+            int[] bucketValues = values[bucket];
+            int count = sizes[bucket];
+            long min = bucketKeys[0];
+            for (int i = 1; i < count; i++) {
+                min = Math.min(min, bucketKeys[i]);
+            }
+
+            // Redistribute around it, every entry lands in a lower bucket
+            last = min;
+            sizes[bucket] = 0;
+            for (int i = 0; i < count; i++) {
+                add(bucket(bucketKeys[i]), bucketKeys[i], bucketValues[i]);
+            }
+        }
+        size--;
+        return values[0][--sizes[0]];
+    }
+
+    /**
+     * Returns the key of the entry popped last.
+     * @return the last key popped, or 0 if nothing has been popped
+     */
+    long lastKey() {
+        return last;
+    }
+
+    private int bucket(long key) {
+        return key == last ? 0 : Long.SIZE - Long.numberOfLeadingZeros(key ^ last);
+    }
+
+    private void add(int bucket, long key, int value) {
+        int count = sizes[bucket];
+        if (count == keys[bucket].length) {
+            keys[bucket] = Arrays.copyOf(keys[bucket], count * 2);
+            values[bucket] = Arrays.copyOf(values[bucket], count * 2);
+        }
+        keys[bucket][count] = key;
+        values[bucket][count] = value;
+        sizes[bucket] = count + 1;
+    }
+
+    @Override
+    public String toString() {
+        return "RadixHeap{" + size + " entries}";
+    }
+}
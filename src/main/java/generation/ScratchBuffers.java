@@ -0,0 +1,170 @@
+package generation;
+
+import java.util.Arrays;
+
+/**
+ * Per-thread pool of the scratch arrays used while generating and solving mazes.
+ *
+ * Buffers only ever grow, so generating or solving mazes of the same size over and
+ * over allocates nothing once the pool has warmed up. A buffer is only valid until
+ * the same buffer is requested again on the same thread, so callers must not hold
+ * on to one across calls into other generation or solving code.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+final class ScratchBuffers {
+    // Constants
+    private static final ThreadLocal<ScratchBuffers> POOL = ThreadLocal.withInitial(ScratchBuffers::new);
+
+    // Fields
+    private int[] cells = new int[0];
+    private int[] directions = new int[0];
+    private int[] stack = new int[0];
+    private int[] parents = new int[0];
+    private boolean[] visited = new boolean[0];
+    private long[] distances = new long[0];
+    private final RadixHeap heap = new RadixHeap();
+    private DisjointSets sets;
+    private final SnapshotSolver snapshotSolver = new SnapshotSolver(null);
+    private Topology rectangular;
+    private int rectangularRows;
+    private int rectangularCols;
+
+    private ScratchBuffers() {}
+
+    /**
+     * Returns the scratch buffers owned by the calling thread.
+     * @return the pool for the current thread
+     */
+    static ScratchBuffers current() {
+        return POOL.get();
+    }
+
+    /**
+     * Buffer used to shuffle the cells of a maze during generation.
+     * @param size minimum length of the buffer
+     * @return an array with unspecified contents
+     */
+    int[] cells(int size) {
+        if (cells.length < size) {
+            cells = new int[size];
+        }
+        return cells;
+    }
+
+    /**
+     * Buffer used to shuffle the directions out of a cell during generation.
+     * @param size minimum length of the buffer
+     * @return an array with unspecified contents
+     */
+    int[] directions(int size) {
+        if (directions.length < size) {
+            directions = new int[size];
+        }
+        return directions;
+    }
+
+    /**
+     * Buffer used as the stack or queue of a traversal.
+     * @param size minimum length of the buffer
+     * @return an array with unspecified contents
+     */
+    int[] stack(int size) {
+        if (stack.length < size) {
+            stack = new int[size];
+        }
+        return stack;
+    }
+
+    /**
+     * Buffer used to map each cell to the cell it was reached from.
+     * @param size minimum length of the buffer
+     * @return an array with unspecified contents
+     */
+    int[] parents(int size) {
+        if (parents.length < size) {
+            parents = new int[size];
+        }
+        return parents;
+    }
+
+    /**
+     * Buffer used to track the visited cells of a traversal.
+     * @param size minimum length of the buffer
+     * @return an array whose first size entries are false
+     */
+    boolean[] visited(int size) {
+        if (visited.length < size) {
+            visited = new boolean[size];
+        }
+        else {
+            Arrays.fill(visited, 0, size, false);
+        }
+        return visited;
+    }
+
+    /**
+     * Buffer used to hold the distance to each cell in a weighted search.
+     * @param size minimum length of the buffer
+     * @return an array with unspecified contents
+     */
+    long[] distances(int size) {
+        if (distances.length < size) {
+            distances = new long[size];
+        }
+        return distances;
+    }
+
+    /**
+     * Priority queue used by weighted searches.
+     * @return an empty heap
+     */
+    RadixHeap radixHeap() {
+        heap.clear();
+        return heap;
+    }
+
+    /**
+     * Disjoint sets used to join cells during generation.
+     * @param size number of sets
+     * @return disjoint sets where every element is in its own set
+     */
+    DisjointSets disjointSets(int size) {
+        if (sets == null) {
+            sets = new DisjointSets(size);
+        }
+        else {
+            sets.reset(size);
+        }
+        return sets;
+    }
+
+    /**
+     * Solver shared by every snapshot solved on this thread, see MazeSnapshot.solve().
+     * @return a solver, which the caller binds to its snapshot
+     */
+    SnapshotSolver snapshotSolver() {
+        return snapshotSolver;
+    }
+
+    /**
+     * Neighbour tables for a rectangular grid, kept while the size stays the same.
+     * @param rows number of rows
+     * @param cols number of columns
+     * @return a rectangular topology
+     */
+    Topology rectangular(int rows, int cols) {
+        if (rectangular == null || rectangularRows != rows || rectangularCols != cols) {
+            rectangular = Topology.rectangular(rows, cols);
+            rectangularRows = rows;
+            rectangularCols = cols;
+        }
+        return rectangular;
+    }
+
+    @Override
+    public String toString() {
+        return "ScratchBuffers{}";
+    }
+}
@@ -0,0 +1,116 @@
+package generation;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Finds shortest paths (fewest cells) between any two cells of a maze, including
+ * braided mazes with loops, where the first path a depth-first search finds can be
+ * much longer than it needs to be.
+ *
+ * Both searches write the path into an array owned by the caller and take their
+ * working buffers from the per-thread pool, so they allocate nothing. Breadth-First
+ * Search works on any topology. A* only works on rectangular grids, where the distance
+ * left to the target is known, and expands far fewer cells when there is a fairly
+ * direct way to it.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class ShortestPathSolver {
+    // Constants
+    private static final int NONE = -1;
+    private static final long UNREACHED = Long.MAX_VALUE;
+
+    private ShortestPathSolver() {}
+
+    /**
+     * Finds a shortest path with Breadth-First Search.
+     * @param graph the maze to solve
+     * @param source the cell to start from
+     * @param target the cell to finish at
+     * @param path array of at least getVertexCount() entries, filled with the cells on
+     *             the path from source to target
+     * @return the number of cells on the path, or 0 if target cannot be reached
+     */
+    public static int bfs(MazeGraph graph, int source, int target, int[] path) {
+        checkCells(graph, source, target);
+        int to = graph.internal(target);
+        int[] parents = graph.bfsParents(graph.internal(source), to);
+        return parents == null ? 0 : unwind(graph, parents, to, path);
+    }
+
+    /**
+     * Finds a shortest path with A* search, guided by the Manhattan distance to the target.
+     * @param graph a maze on a rectangular grid
+     * @param cols number of columns in the maze
+     * @param source the cell to start from
+     * @param target the cell to finish at
+     * @param path array of at least getVertexCount() entries, filled with the cells on
+     *             the path from source to target
+     * @return the number of cells on the path, or 0 if target cannot be reached
+     */
+    public static int aStar(MazeGraph graph, int cols, int source, int target, int[] path) {
+        checkCells(graph, source, target);
+        int vertexCount = graph.getVertexCount();
+        ScratchBuffers scratch = ScratchBuffers.current();
+        long[] steps = scratch.distances(vertexCount);
+        int[] parents = scratch.parents(vertexCount);
+        RadixHeap open = scratch.radixHeap();
+        Arrays.fill(steps, 0, vertexCount, UNREACHED);
+
+        // Manhattan distance never shrinks by more than the step taken, so the estimated
+        // lengths only grow and the monotone heap works
+        int targetRow = target / cols;
+        int targetCol = target % cols;
+        int from = graph.internal(source);
+        int to = graph.internal(target);
+        steps[from] = 0;
+        parents[from] = NONE;
+        open.push(manhattan(source, cols, targetRow, targetCol), from);
+
+        while (!open.isEmpty()) {
+            int current = open.pop();
+            if (current == to) {
+                return unwind(graph, parents, to, path);
+            }
+            long estimate = open.lastKey();
+            long step = steps[current];
+            if (estimate > step + manhattan(graph.external(current), cols, targetRow, targetCol)) {
+                continue; // Found a shorter way here after this entry was pushed
+            }
+
+            for (int slot = graph.firstSlot(current); slot != NONE; slot = graph.nextSlot(slot)) {
+                int neighbor = graph.slotTarget(slot);
+                if (step + 1 < steps[neighbor]) {
+                    steps[neighbor] = step + 1;
+                    parents[neighbor] = current;
+                    open.push(step + 1 + manhattan(graph.external(neighbor), cols, targetRow, targetCol), neighbor);
+                }
+            }
+        }
+        return 0;
+    }
+
+    private static long manhattan(int cell, int cols, int targetRow, int targetCol) {
+        return Math.abs(cell / cols - targetRow) + Math.abs(cell % cols - targetCol);
+    }
+
+    private static void checkCells(MazeGraph graph, int source, int target) {
+        Objects.checkIndex(source, graph.getVertexCount());
+        Objects.checkIndex(target, graph.getVertexCount());
+    }
+
+    // Copies the path ending at target out of the parents array, from its start
+    private static int unwind(MazeGraph graph, int[] parents, int target, int[] path) {
+        int length = 0;
+        for (int current = target; current != NONE; current = parents[current]) {
+            length++;
+        }
+        int i = length;
+        for (int current = target; current != NONE; current = parents[current]) {
+            path[--i] = graph.external(current);
+        }
+        return length;
+    }
+}
@@ -0,0 +1,165 @@
+package generation;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+/**
+ * Finds shortest paths through a MazeSnapshot with buffers that are reused from one
+ * solve to the next. A solver must only be used by one thread at a time.
+ *
+ * Perfect mazes are solved by walking up the snapshot's tree and need no buffers.
+ * Other mazes are solved with Breadth-First Search. Instead of clearing a visited array
+ * before every search, each cell is stamped with the number of the search that reached
+ * it, so starting one costs nothing however big the maze is. The cell each cell was
+ * reached from is kept as a one-byte index into its neighbours, and the queue only
+ * grows as far as searches actually get, so a searching solver takes about 5 bytes per
+ * cell and allocates nothing once warmed up.
+ *
+ * MazeSnapshot.solve() shares one solver per thread between every snapshot, binding it
+ * to a snapshot only for the length of a solve, so the pool never keeps a snapshot alive.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public final class SnapshotSolver {
+    // Constants
+    private static final int INITIAL_QUEUE = 1 << 10;
+    private static final byte START = -1;
+
+    // Fields
+    private MazeSnapshot snapshot;
+    private int[] offsets;
+    private int[] neighbors;
+    private int[] treeParents;
+    private int[] depths;
+    private int[] stamps;    // Solve that last reached each cell, allocated by the first search
+    private byte[] cameFrom; // Index of the neighbour each cell was reached from
+    private int[] queue;
+    private int stamp;
+
+    SnapshotSolver(MazeSnapshot snapshot) {
+        bind(snapshot);
+    }
+
+    // Points the solver at another snapshot, or at none if null. The buffers are kept,
+    // and since stamps only ever grow, marks left by the last snapshot are never current.
+    void bind(MazeSnapshot snapshot) {
+        this.snapshot = snapshot;
+        this.offsets = snapshot == null ? null : snapshot.offsets();
+        this.neighbors = snapshot == null ? null : snapshot.neighbors();
+        this.treeParents = snapshot == null ? null : snapshot.treeParents();
+        this.depths = snapshot == null ? null : snapshot.depths();
+    }
+
+    /**
+     * Finds a shortest path between two cells.
+     * @param source the cell to start from
+     * @param target the cell to finish at
+     * @param path array of at least getVertexCount() entries, filled with the cells on
+     *             the path from source to target
+     * @return the number of cells on the path, or 0 if target cannot be reached
+     */
+    public int solve(int source, int target, int[] path) {
+        int vertexCount = snapshot.getVertexCount();
+        Objects.checkIndex(source, vertexCount);
+        Objects.checkIndex(target, vertexCount);
+        if (treeParents != null) {
+            return climb(source, target, path);
+        }
+        if (stamps == null || stamps.length < vertexCount) {
+            stamps = new int[vertexCount];
+            cameFrom = new byte[vertexCount];
+            queue = new int[Math.min(INITIAL_QUEUE, vertexCount)];
+        }
+        if (++stamp == 0) {
+            // Stamps wrapped around, forget every earlier solve
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = source;
+        stamps[source] = stamp;
+        cameFrom[source] = START;
+        while (head < tail && stamps[target] != stamp) {
+            int current = queue[head++];
+            for (int index = offsets[current]; index < offsets[current + 1]; index++) {
+                int neighbor = neighbors[index];
+                if (stamps[neighbor] != stamp) {
+                    stamps[neighbor] = stamp;
+                    cameFrom[neighbor] = (byte) backIndex(neighbor, current);
+                    if (tail == queue.length) {
+                        queue = Arrays.copyOf(queue, Math.min(2 * tail, vertexCount));
+                    }
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+        if (stamps[target] != stamp) {
+            return 0;
+        }
+
+        // Walk back from the target, then flip the path to start at the source
+        int length = 0;
+        for (int current = target; ; current = neighbors[offsets[current] + cameFrom[current]]) {
+            path[length++] = current;
+            if (cameFrom[current] == START) {
+                break;
+            }
+        }
+        for (int i = 0, j = length - 1; i < j; i++, j--) {
+            int cell = path[i];
+            path[i] = path[j];
+            path[j] = cell;
+        }
+        return length;
+    }
+
+    // Path through a tree: up from both cells to the cell where their branches meet
+    private int climb(int source, int target, int[] path) {
+        int up = source;
+        int down = target;
+        while (depths[up] > depths[down]) {
+            up = treeParents[up];
+        }
+        while (depths[down] > depths[up]) {
+            down = treeParents[down];
+        }
+        while (up != down) {
+            up = treeParents[up];
+            down = treeParents[down];
+        }
+        int meet = up;
+
+        int length = depths[source] + depths[target] - 2 * depths[meet] + 1;
+        int index = 0;
+        for (int current = source; current != meet; current = treeParents[current]) {
+            path[index++] = current;
+        }
+        path[index] = meet;
+        index = length;
+        for (int current = target; current != meet; current = treeParents[current]) {
+            path[--index] = current;
+        }
+        return length;
+    }
+
+    // Position of a neighbour in a cell's list, small since cells have only a few sides
+    private int backIndex(int cell, int neighbor) {
+        int index = offsets[cell];
+        while (neighbors[index] != neighbor) {
+            index++;
+        }
+        return index - offsets[cell];
+    }
+
+    public MazeSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    @Override
+    public String toString() {
+        return "SnapshotSolver{" + snapshot + "}";
+    }
+}
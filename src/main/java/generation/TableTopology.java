@@ -0,0 +1,173 @@
+package generation;
+
+/**
+ * Topology backed by precomputed neighbour tables.
+ *
+ * Cells on the same side of every border (and, for hexagons, on rows of the same parity)
+ * reach their neighbours with the same offsets. Each cell stores one byte naming its class,
+ * and each class stores its offsets and a mask of the directions that exist, so finding a
+ * neighbour takes two array reads and no division.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+final class TableTopology implements Topology {
+    /**
+     * The shapes of grid this class can describe.
+     */
+    enum Kind {
+        RECTANGULAR,
+        TOROIDAL,
+        HEXAGONAL,
+        LAYERED
+    }
+
+    // Constants
+    private static final int BORDER_STATES = 4; // First, middle, last, or first and last
+    private static final int CLASSES = BORDER_STATES * BORDER_STATES * BORDER_STATES * 2;
+    private static final int MIN_TORUS_SIZE = 3;
+
+    // Fields
+    private final Kind kind;
+    private final int levels;
+    private final int rows;
+    private final int cols;
+    private final int degree;
+    private final byte[] cellClasses;
+    private final int[] offsets;   // Class * degree + direction
+    private final byte[] masks;    // Directions that exist, per class
+    private final int[] opposites;
+
+    TableTopology(Kind kind, int levels, int rows, int cols) {
+        long cellCount = (long) levels * rows * cols;
+        if (levels <= 0 || rows <= 0 || cols <= 0 || cellCount > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("Invalid maze dimensions " + levels + "x" + rows + "x" + cols);
+        }
+        if (kind == Kind.TOROIDAL && (rows < MIN_TORUS_SIZE || cols < MIN_TORUS_SIZE)) {
+            // Smaller tori would connect cells to themselves or twice to the same cell
+            throw new IllegalArgumentException("Toroidal mazes need at least " + MIN_TORUS_SIZE
+                    + " rows and columns, not " + rows + "x" + cols);
+        }
+        this.kind = kind;
+        this.levels = levels;
+        this.rows = rows;
+        this.cols = cols;
+        this.degree = kind == Kind.HEXAGONAL || kind == Kind.LAYERED ? 6 : 4;
+        this.opposites = new int[degree];
+        for (int direction = 0; direction < degree; direction++) {
+            if (kind == Kind.LAYERED) {
+                opposites[direction] = direction >= UP ? UP + DOWN - direction : (direction + 2) % 4;
+            }
+            else {
+                opposites[direction] = (direction + degree / 2) % degree;
+            }
+        }
+
+        // Work out the offsets of each class from the first cell found in it
+        cellClasses = new byte[(int) cellCount];
+        offsets = new int[CLASSES * degree];
+        masks = new byte[CLASSES];
+        boolean[] known = new boolean[CLASSES];
+        int cell = 0;
+        for (int level = 0; level < levels; level++) {
+            for (int row = 0; row < rows; row++) {
+                for (int col = 0; col < cols; col++) {
+                    int cellClass = ((borderState(level, levels) * BORDER_STATES + borderState(row, rows))
+                            * BORDER_STATES + borderState(col, cols)) * 2
+                            + (kind == Kind.HEXAGONAL ? row & 1 : 0);
+                    if (!known[cellClass]) {
+                        known[cellClass] = true;
+                        for (int direction = 0; direction < degree; direction++) {
+                            int neighbor = locate(level, row, col, direction);
+                            if (neighbor != -1) {
+                                masks[cellClass] |= 1 << direction;
+                                offsets[cellClass * degree + direction] = neighbor - cell;
+                            }
+                        }
+                    }
+                    cellClasses[cell++] = (byte) cellClass;
+                }
+            }
+        }
+    }
+
+    // Which side of a border a coordinate is on
+    private static int borderState(int index, int size) {
+        if (size == 1) {
+            return 3;
+        }
+        return index == 0 ? 0 : index == size - 1 ? 2 : 1;
+    }
+
+    // Works out a neighbour from coordinates, only used to fill the tables
+    private int locate(int level, int row, int col, int direction) {
+        int toLevel = level;
+        int toRow = row;
+        int toCol = col;
+        if (kind == Kind.HEXAGONAL) {
+            int shift = row & 1; // Odd rows sit half a cell east
+            switch (direction) {
+                case HEX_EAST: toCol++; break;
+                case HEX_WEST: toCol--; break;
+                case HEX_NORTH_EAST: toRow--; toCol += shift; break;
+                case HEX_NORTH_WEST: toRow--; toCol += shift - 1; break;
+                case HEX_SOUTH_EAST: toRow++; toCol += shift; break;
+                case HEX_SOUTH_WEST: toRow++; toCol += shift - 1; break;
+                default: return -1;
+            }
+        }
+        else {
+            switch (direction) {
+                case Cell.NORTH: toRow--; break;
+                case Cell.EAST: toCol++; break;
+                case Cell.SOUTH: toRow++; break;
+                case Cell.WEST: toCol--; break;
+                case UP: toLevel--; break;
+                case DOWN: toLevel++; break;
+                default: return -1;
+            }
+        }
+        if (kind == Kind.TOROIDAL) {
+            toRow = Math.floorMod(toRow, rows);
+            toCol = Math.floorMod(toCol, cols);
+        }
+        if (toLevel < 0 || toLevel >= levels || toRow < 0 || toRow >= rows || toCol < 0 || toCol >= cols) {
+            return -1;
+        }
+        return (toLevel * rows + toRow) * cols + toCol;
+    }
+
+    @Override
+    public int getCellCount() {
+        return cellClasses.length;
+    }
+
+    @Override
+    public int getDegree() {
+        return degree;
+    }
+
+    @Override
+    public int neighbor(int cell, int direction) {
+        int cellClass = cellClasses[cell];
+        if ((masks[cellClass] & (1 << direction)) == 0) {
+            return -1;
+        }
+        return cell + offsets[cellClass * degree + direction];
+    }
+
+    @Override
+    public int boundaryMask(int cell) {
+        return masks[cellClasses[cell]];
+    }
+
+    @Override
+    public int opposite(int direction) {
+        return opposites[direction];
+    }
+
+    @Override
+    public String toString() {
+        return "TableTopology{" + kind + " " + (levels > 1 ? levels + "x" : "") + rows + "x" + cols + "}";
+    }
+}
@@ -0,0 +1,124 @@
+package generation;
+
+/**
+ * Describes how the cells of a maze connect to each other, so the same generator and
+ * solvers can build mazes on grids other than a plain rectangle.
+ *
+ * Cells are numbered from 0 to getCellCount() - 1 and each cell has up to getDegree()
+ * neighbours, one per direction. The factories below precompute every neighbour into
+ * primitive tables, so neighbor() is a table lookup rather than division and modulo.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public interface Topology {
+    /**
+     * Directions of the hexagonal topology (odd rows are shifted half a cell east).
+     */
+    int HEX_EAST = 0;
+    int HEX_SOUTH_EAST = 1;
+    int HEX_SOUTH_WEST = 2;
+    int HEX_WEST = 3;
+    int HEX_NORTH_WEST = 4;
+    int HEX_NORTH_EAST = 5;
+
+    /**
+     * Directions of the layered topology besides Cell.NORTH, EAST, SOUTH and WEST.
+     */
+    int UP = 4;
+    int DOWN = 5;
+
+    /**
+     * Returns the number of cells.
+     * @return number of cells in the maze
+     */
+    int getCellCount();
+
+    /**
+     * Returns the number of directions out of each cell.
+     * @return the largest number of neighbours a cell can have
+     */
+    int getDegree();
+
+    /**
+     * Returns the neighbour of a cell in the given direction.
+     * @param cell a cell from 0 to getCellCount() - 1
+     * @param direction a direction from 0 to getDegree() - 1
+     * @return the neighbouring cell, or -1 if there is none in that direction
+     */
+    int neighbor(int cell, int direction);
+
+    /**
+     * Returns the directions a cell has neighbours in.
+     * @param cell a cell from 0 to getCellCount() - 1
+     * @return bit mask where bit d is set when neighbor(cell, d) exists
+     */
+    int boundaryMask(int cell);
+
+    /**
+     * Returns the direction leading back the way a direction came.
+     * @param direction a direction from 0 to getDegree() - 1
+     * @return the opposite direction
+     */
+    int opposite(int direction);
+
+    /**
+     * Returns the direction that leads from one cell to a neighbouring cell.
+     * @param cell a cell from 0 to getCellCount() - 1
+     * @param neighbor a neighbour of cell
+     * @return the direction, or -1 if the cells are not neighbours
+     */
+    default int direction(int cell, int neighbor) {
+        for (int direction = 0; direction < getDegree(); direction++) {
+            if (neighbor(cell, direction) == neighbor) {
+                return direction;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * A rectangular grid where each cell has a north, east, south and west neighbour.
+     * Cells are row-major (index = row * cols + col).
+     * @param rows number of rows
+     * @param cols number of columns
+     * @return the topology
+     */
+    static Topology rectangular(int rows, int cols) {
+        return new TableTopology(TableTopology.Kind.RECTANGULAR, 1, rows, cols);
+    }
+
+    /**
+     * A rectangular grid whose edges wrap around, so every cell has four neighbours.
+     * @param rows number of rows, at least 3
+     * @param cols number of columns, at least 3
+     * @return the topology
+     */
+    static Topology toroidal(int rows, int cols) {
+        return new TableTopology(TableTopology.Kind.TOROIDAL, 1, rows, cols);
+    }
+
+    /**
+     * A grid of hexagons in rows, where odd rows are shifted half a cell east and each
+     * cell has up to six neighbours (see the HEX_ directions).
+     * @param rows number of rows
+     * @param cols number of columns
+     * @return the topology
+     */
+    static Topology hexagonal(int rows, int cols) {
+        return new TableTopology(TableTopology.Kind.HEXAGONAL, 1, rows, cols);
+    }
+
+    /**
+     * Rectangular grids stacked on top of each other, where each cell can also lead UP
+     * to the level before it or DOWN to the level after it.
+     * Cells are numbered level * rows * cols + row * cols + col.
+     * @param levels number of levels
+     * @param rows number of rows on each level
+     * @param cols number of columns on each level
+     * @return the topology
+     */
+    static Topology layered(int levels, int rows, int cols) {
+        return new TableTopology(TableTopology.Kind.LAYERED, levels, rows, cols);
+    }
+}
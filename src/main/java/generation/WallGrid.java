@@ -0,0 +1,79 @@
+package generation;
+
+/**
+ * A rectangular maze that can only be asked which walls of a cell are open, such as a
+ * maze in native memory (OffHeapMaze) or in a mapped file (MappedMaze). Cells are
+ * row-major long indices (index = row * cols + col), so grids can have billions of cells.
+ *
+ * The outer border is always closed: the entrance north of cell 0 and the exit south of
+ * the last cell are left to the solvers, see LowMemorySolver.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public interface WallGrid {
+    /**
+     * Returns the number of rows in the maze.
+     * @return number of rows
+     */
+    int getRows();
+
+    /**
+     * Returns the number of columns in the maze.
+     * @return number of columns
+     */
+    int getCols();
+
+    /**
+     * Returns the number of cells in the maze.
+     * @return rows * cols
+     */
+    default long getCellCount() {
+        return (long) getRows() * getCols();
+    }
+
+    /**
+     * Returns whether a wall of a cell has a door in it.
+     * @param cell a cell index
+     * @param direction Cell.NORTH, EAST, SOUTH or WEST
+     * @return true if the wall is open
+     */
+    boolean isOpen(long cell, int direction);
+
+    /**
+     * Returns the neighbour of a cell in the given direction.
+     * @param cell a cell index
+     * @param direction Cell.NORTH, EAST, SOUTH or WEST
+     * @return the neighbouring cell, or -1 at the edge of the maze
+     */
+    default long neighbor(long cell, int direction) {
+        int cols = getCols();
+        switch (direction) {
+            case Cell.NORTH:
+                return cell < cols ? -1 : cell - cols;
+            case Cell.EAST:
+                return (cell + 1) % cols == 0 ? -1 : cell + 1;
+            case Cell.SOUTH:
+                return cell + cols >= getCellCount() ? -1 : cell + cols;
+            case Cell.WEST:
+                return cell % cols == 0 ? -1 : cell - 1;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Returns the doors of a cell, in the same form as MazeGraph.doorMask().
+     * @param cell a cell index
+     * @return bit mask of the open walls of the cell
+     */
+    default int doorMask(long cell) {
+        int doors = 0;
+        for (int direction = Cell.NORTH; direction <= Cell.WEST; direction++) {
+            if (isOpen(cell, direction)) {
+                doors |= 1 << direction;
+            }
+        }
+        return doors;
+    }
+}
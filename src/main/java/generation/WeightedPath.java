@@ -0,0 +1,63 @@
+package generation;
+
+import java.util.Arrays;
+
+/**
+ * A path through a maze together with what it costs to walk.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class WeightedPath {
+    // Fields
+    private final int[] cells;
+    private final long cost;
+
+    /**
+     * Creates a path.
+     * @param cells the cells on the path, in the order they are walked
+     * @param cost the total cost of the path
+     */
+    public WeightedPath(int[] cells, long cost) {
+        this.cells = cells;
+        this.cost = cost;
+    }
+
+    /**
+     * Returns the cells on the path, from the start to the end. The array is not copied.
+     * @return the cells on the path, empty if there is no path
+     */
+    public int[] getCells() {
+        return cells;
+    }
+
+    /**
+     * Returns the number of cells on the path.
+     * @return the length of the path, 0 if there is no path
+     */
+    public int getLength() {
+        return cells.length;
+    }
+
+    /**
+     * Returns the total cost of walking the path.
+     * @return the cost of the path
+     */
+    public long getCost() {
+        return cost;
+    }
+
+    /**
+     * Returns whether a path was found.
+     * @return true if there is no path
+     */
+    public boolean isEmpty() {
+        return cells.length == 0;
+    }
+
+    @Override
+    public String toString() {
+        return "WeightedPath{cost=" + cost + ", cells=" + (cells.length <= 10 ? Arrays.toString(cells)
+                : cells.length + " cells") + "}";
+    }
+}
@@ -0,0 +1,138 @@
+package gui;
+
+import javafx.animation.AnimationTimer;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+/**
+ * Plays back drawing steps a few at a time on each frame of the FX thread.
+ *
+ * Steps are grouped into phases that run one after another. Each frame keeps running
+ * steps until its time budget is spent, so animating a large maze only ever repaints
+ * the cells touched by the steps run in that frame instead of freezing the UI.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class MazeAnimator extends AnimationTimer {
+    //Constants
+    public static final long DEFAULT_FRAME_BUDGET_NANOS = 8_000_000; // Half of a 60 fps frame
+    private static final int STEPS_BETWEEN_CLOCK_CHECKS = 16;
+
+    private final long frameBudgetNanos;
+    private final Deque<Phase> phases = new ArrayDeque<>();
+    private boolean running;
+
+    /**
+     * Creates an animator that spends the default time budget on each frame.
+     */
+    public MazeAnimator() {
+        this(DEFAULT_FRAME_BUDGET_NANOS);
+    }
+
+    /**
+     * Creates an animator with the given time budget per frame.
+     * @param frameBudgetNanos how long each frame may spend running steps
+     */
+    public MazeAnimator(long frameBudgetNanos) {
+        this.frameBudgetNanos = frameBudgetNanos;
+    }
+
+    /**
+     * Adds a phase that runs once the phases before it are done.
+     * @param steps number of steps in the phase
+     * @param step draws step i of the phase, for i from 0 to steps - 1
+     */
+    public void queue(int steps, IntConsumer step) {
+        queue(IntStream.range(0, steps).iterator(), step);
+    }
+
+    /**
+     * Adds a phase that pulls its steps from an iterator as they are drawn, so steps
+     * that are never drawn (because the animation is cancelled) are never computed.
+     * @param steps the steps of the phase, such as the cells a search visits
+     * @param step draws one step, given the value the iterator returned for it
+     */
+    public void queue(PrimitiveIterator.OfInt steps, IntConsumer step) {
+        if (steps.hasNext()) {
+            phases.add(new Phase(steps, step));
+        }
+        if (!running && !phases.isEmpty()) {
+            running = true;
+            start();
+        }
+    }
+
+    /**
+     * Adds a single drawing action that runs once the phases before it are done.
+     * @param action the drawing to run
+     */
+    public void queue(Runnable action) {
+        queue(1, step -> action.run());
+    }
+
+    /**
+     * Drops every phase that has not finished and stops the animation.
+     */
+    public void cancel() {
+        phases.clear();
+        stop();
+    }
+
+    /**
+     * Returns whether there are still steps waiting to be drawn.
+     * @return true while the animation is running
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        super.stop();
+    }
+
+    @Override
+    public void handle(long now) {
+        long deadline = System.nanoTime() + frameBudgetNanos;
+        int sinceClockCheck = 0;
+
+        while (!phases.isEmpty()) {
+            Phase phase = phases.peek();
+            phase.step.accept(phase.steps.nextInt());
+            if (!phase.steps.hasNext()) {
+                phases.poll();
+            }
+
+            //reading the clock costs more than most steps
+            if (++sinceClockCheck == STEPS_BETWEEN_CLOCK_CHECKS) {
+                sinceClockCheck = 0;
+                if (System.nanoTime() >= deadline) {
+                    return;
+                }
+            }
+        }
+        stop();
+    }
+
+    //a run of steps drawn in order
+    private static class Phase {
+        private final PrimitiveIterator.OfInt steps;
+        private final IntConsumer step;
+
+        private Phase(PrimitiveIterator.OfInt steps, IntConsumer step) {
+            this.steps = steps;
+            this.step = step;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "MazeAnimator{" + phases.size() + " phases}";
+    }
+}
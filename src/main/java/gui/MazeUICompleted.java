@@ -2,13 +2,13 @@ package gui;
 
 import generation.AlgorithmType;
 import generation.Cell;
-import generation.DisjointSets;
 import generation.MazeGraph;
+import generation.MazePool;
+import generation.MazeTraversal;
 import javafx.scene.paint.Color;
 
+import java.util.Arrays;
 import java.util.Map;
-import java.util.Random;
-import java.util.concurrent.ThreadLocalRandom;
 
 /**
  * Generates a random maze using disjoint sets,
@@ -22,10 +22,20 @@ public class MazeUICompleted extends MazeUI
 {
     //Constants
     public static final int MAX_CELL_COUNT_FOR_GRID = 10000;
+    public static final Color VISITED_COLOR = Color.LIGHTSKYBLUE;
+    private static final int ALL_WALLS = 0b1111;
 
     // Maze Data
     private int cellCount;
     private MazeGraph graph;
+    private final MazePool pool = new MazePool(MazePool.DEFAULT_CAPACITY,
+            Long.getLong("maze.pool.bytes", MazePool.DEFAULT_MEMORY_BUDGET));
+
+    // Animation, walls and solutions are drawn on separate layers
+    private final MazeAnimator animator = new MazeAnimator();
+    private final MazeAnimator overlayAnimator = new MazeAnimator();
+    private final boolean[] walls = new boolean[4];
+    private byte[] standingWalls; // Walls not yet knocked down, per cell
 
     @Override
     public void runAlgorithm(AlgorithmType type)
@@ -47,88 +57,127 @@ public class MazeUICompleted extends MazeUI
      * The graph is then used to draw the maze.
      */
     private void generateMaze() {
-        // Initialize Maze data structures
+        // Drop whatever was still being animated for the last maze
+        animator.cancel();
+        overlayAnimator.cancel();
+
+        // Take a maze generated ahead of time, handing back the last one to be reused
         cellCount = getRows() * getCols();
-        DisjointSets sets = new DisjointSets(cellCount);
-        graph = new MazeGraph(cellCount);
-
-        // Create list of cells to choose from
-        int[] generatedCells = new int[cellCount];
-        for (int i = 0; i < cellCount; i++) {
-            generatedCells[i] = i;
-        }
-
-        // Add edges to the graph randomly to form maze
-        // FISHER-YATES Algorithm: www.geeksforgeeks.org/shuffle-a-given-array-using-fisher-yates-shuffle-algorithm
-        Random random = ThreadLocalRandom.current(); // Faster than Random (not thread-safe)
-        while(graph.getEdgeCount() < cellCount -1) {
-            // Traverse Backwards through generatedCells
-            for (int i = cellCount; i > 0; i--) {
-                // Select a random cell from the unused cells in generatedCells
-                int nextCellIndex = random.nextInt(i);
-                int nextCell = generatedCells[nextCellIndex];
-                swap(nextCellIndex, i-1, generatedCells); // Place selected cell at the end
-
-                // Get random neighbor (cycle through them
-                int neighbor;
-                int[] neighbors = randomNeighbors(random);
-
-                for (int counter = 0; counter < 4; counter++) {
-                    neighbor = getNeighbor(nextCell, neighbors[counter]);
-                    // Check if neighbor index is valid and if they are in the same set
-                    if (neighbor != -1 && !sets.sameSet(nextCell, neighbor)) {
-                        // Union the sets
-                        sets.union(nextCell, neighbor);
-                        // Store the edge in the graph
-                        graph.addEdge(nextCell, neighbor);
-                        break;
-                    }
-                }
-                // Exit loop early if the number of edges was found
-                if (graph.getEdgeCount() == cellCount -1) {
-                    break;
-                }
-            }
+        if (graph != null) {
+            pool.recycle(graph);
         }
+        graph = pool.take(getRows(), getCols());
+
         // Draw the maze
-        drawMaze();
+        if (isAnimated()) {
+            animateMaze();
+        }
+        else {
+            drawMaze();
+        }
+    }
+
+    @Override
+    public void stop() {
+        pool.close();
+    }
+
+    // Start on mazes of the new size while the user is still looking at the old one
+    @Override
+    protected void onSizeChanged(int rows, int cols) {
+        pool.setSize(rows, cols);
+    }
+
+    // Replays the unions in the order they were made, starting from a grid with every
+    // wall standing and repainting only the two cells joined by each union
+    private void animateMaze() {
+        int wallWidth = 100 / getCols() + 1;
+        Color background = cellCount < MAX_CELL_COUNT_FOR_GRID
+                ? Color.rgb(GRAY_COMPONENT, GRAY_COMPONENT, GRAY_COMPONENT)
+                : Color.WHITE;
+        if (standingWalls == null || standingWalls.length < cellCount) {
+            standingWalls = new byte[cellCount];
+        }
+        Arrays.fill(standingWalls, 0, cellCount, (byte) ALL_WALLS);
+
+        animator.queue(() -> {
+            clearScreen();
+            setStrokeWidth(wallWidth);
+            drawGrid(Color.BLACK);
+        });
+        MazeGraph maze = graph;
+        animator.queue(maze.getEdgeCount(), edge -> {
+            setStrokeWidth(wallWidth);
+            openWall(maze.getEdgeFrom(edge), maze.getEdgeTo(edge), background);
+        });
+        animator.queue(() -> {
+            // Knocked down walls may have chipped the border
+            setStrokeColor(Color.BLACK);
+            drawBorder();
+
+            // Remove entrance and exit walls
+            setStrokeWidth(wallWidth);
+            setStrokeColor(background);
+            drawCell(0, walls(1 << Cell.NORTH));
+            drawCell(cellCount - 1, walls(1 << Cell.SOUTH));
+        });
     }
 
-    // Method to randomize the neighbor selection order
-    private int[] randomNeighbors(Random random) {
-        int[] neighbors = {0,1,2,3};
-        for (int i = 4; i > 0; i--) {
-            swap(i-1, random.nextInt(i), neighbors);
+    private void openWall(int cell, int neighbor, Color background) {
+        int wall;
+        if (neighbor == cell - getCols()) {
+            wall = Cell.NORTH;
         }
-        return neighbors;
+        else if (neighbor == cell + 1) {
+            wall = Cell.EAST;
+        }
+        else if (neighbor == cell + getCols()) {
+            wall = Cell.SOUTH;
+        }
+        else {
+            wall = Cell.WEST;
+        }
+        standingWalls[cell] &= ~(1 << wall);
+        standingWalls[neighbor] &= ~(1 << (wall + 2) % 4); // Opposite wall
+
+        // Erase the shared wall, then repaint what is left of both cells
+        setStrokeColor(background);
+        drawCell(cell, walls(1 << wall));
+        setStrokeColor(Color.BLACK);
+        drawCell(cell, walls(standingWalls[cell]));
+        drawCell(neighbor, walls(standingWalls[neighbor]));
     }
 
-    // Method to calculate the neighbor of the cell in a given direction
-    // Returns -1 if neighbor is invalid or out of bounds
-    private int getNeighbor(int cell, int wall) {
-        switch(wall) {
-            case 0: // NORTH
-                int northNeighbor = cell - getCols();
-                return northNeighbor < 0 ? -1 : northNeighbor;
-            case 1: // EAST
-                // If (cell + 1) % getCols() == 0, then cell is at the end of a row
-                return (cell + 1) % getCols() == 0 ? -1 : cell + 1;
-            case 2: // SOUTH
-                int southNeighbor = cell + getCols();
-                return southNeighbor >= cellCount ? -1 : southNeighbor;
-            case 3: // WEST
-                // If cell % getCols() == 0, then cell is at the start of a row
-                return cell % getCols() == 0 ? -1 : cell - 1;
-            default:
-                return -1;
+    // Converts a bit mask of walls to the flags drawCell() expects
+    private boolean[] walls(int mask) {
+        for (int wall = Cell.NORTH; wall <= Cell.WEST; wall++) {
+            walls[wall] = (mask & (1 << wall)) != 0;
         }
+        return walls;
     }
 
-    // Method to swap values at provided array indices
-    private void swap(int firstIndex, int secondIndex, int[] array) {
-        int firstValue = array[firstIndex];
-        array[firstIndex] = array[secondIndex];
-        array[secondIndex] = firstValue;
+    // Wipes the last solution off the overlay, leaving the maze drawn beneath it
+    private void clearSolution() {
+        overlayAnimator.cancel();
+        clearOverlay();
+    }
+
+    // Highlights the cells a search visits as it runs, a few each frame, followed by the
+    // path it found
+    private void animateSolution(MazeTraversal traversal) {
+        overlayAnimator.queue(traversal, cell -> {
+            setOverlayFillColor(VISITED_COLOR);
+            fillOverlayCell(cell);
+        });
+        overlayAnimator.queue(() -> {
+            if (traversal.isTargetFound()) {
+                int[] path = traversal.path();
+                overlayAnimator.queue(path.length, step -> {
+                    setOverlayFillColor(Color.YELLOW);
+                    fillOverlayCell(path[step]);
+                });
+            }
+        });
     }
 
     private void drawMaze() {
@@ -143,14 +192,21 @@ public class MazeUICompleted extends MazeUI
 
         // Draw Cells
         setStrokeWidth(100/getCols() + 1);
-        Map<Integer, Cell> cellMap = graph.cellMap();
+        boolean[] walls = new boolean[4];
+        for (int key = 0; key < cellCount; key++) {
+            int doors = graph.doorMask(key, getCols());
 
-        // Remove entrance and exit walls
-        cellMap.get(0).setDoor(0);
-        cellMap.get(cellCount-1).setDoor(2);
-
-        for (int key : cellMap.keySet()) {
-            drawCell(key, cellMap.get(key).getDoors());
+            // Remove entrance and exit walls
+            if (key == 0) {
+                doors |= 1 << Cell.NORTH;
+            }
+            if (key == cellCount - 1) {
+                doors |= 1 << Cell.SOUTH;
+            }
+            for (int wall = Cell.NORTH; wall <= Cell.WEST; wall++) {
+                walls[wall] = (doors & (1 << wall)) == 0;
+            }
+            drawCell(key, walls);
         }
     }
 
@@ -174,26 +230,55 @@ public class MazeUICompleted extends MazeUI
         }
     }
 
+    // Solutions wait for an unfinished maze animation so they are not drawn over
+    // half-built walls
+    private void afterMaze(Runnable solve) {
+        if (animator.isRunning()) {
+            animator.queue(solve);
+        }
+        else {
+            solve.run();
+        }
+    }
+
+    private void dfs() {
+        afterMaze(this::solveDfs);
+    }
+
+    private void bfs() {
+        afterMaze(this::solveBfs);
+    }
+
     // Method to solve the maze using Depth First Search and
     // highlight the path from start to finish
-    private void dfs() {
-        setFillColor(Color.YELLOW);
+    private void solveDfs() {
+        clearSolution();
+        if (isAnimated()) {
+            animateSolution(graph.dfsIterator(0, cellCount - 1));
+            return;
+        }
+        setOverlayFillColor(Color.YELLOW);
         for (int cell : graph.dfs()) {
-            fillCell(cell);
+            fillOverlayCell(cell);
         }
     }
 
     // Method to solve the maze using Breadth First Search and
     // highlight the path from start to finish
-    private void bfs() {
-        setFillColor(Color.YELLOW);
+    private void solveBfs() {
+        clearSolution();
+        if (isAnimated()) {
+            animateSolution(graph.bfsIterator(0, cellCount - 1));
+            return;
+        }
+        setOverlayFillColor(Color.YELLOW);
 
         Map<Integer, Integer> traversalMap = graph.bfs();
 
         Integer current = cellCount - 1;
         while (current != null) {
             // Draw current
-            fillCell(current);
+            fillOverlayCell(current);
             // Travel to next cell
             current = traversalMap.get(current);
         }
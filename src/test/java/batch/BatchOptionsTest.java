@@ -0,0 +1,76 @@
+package batch;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This is a test for the BatchOptions class.
+ * Tests that command line arguments are read into the options and that bad ones are
+ * rejected.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+class BatchOptionsTest {
+    @Test
+    void testDefaults() {
+        BatchOptions options = BatchOptions.parse(new String[0]);
+        assertEquals(1000, options.getCount());
+        assertEquals(50, options.getRows());
+        assertEquals(50, options.getCols());
+        assertEquals(Paths.get("mazes"), options.getOut());
+        assertEquals(0, options.getSeed());
+        assertTrue(options.getGenerators() >= 1);
+        assertEquals(1, options.getSolvers());
+        assertEquals(1, options.getEncoders());
+        assertEquals(16, options.getQueueCapacity());
+        assertEquals(6, options.getLevel());
+        assertEquals(1, options.getReportSeconds());
+    }
+
+    @Test
+    void testValidArguments() {
+        BatchOptions options = BatchOptions.parse(new String[]{
+                "--count", "12", "--rows", "7", "--cols", "9", "--out", "data", "--seed", "-5",
+                "--generators", "3", "--solvers", "2", "--encoders", "4", "--queue", "8",
+                "--level", "9", "--report", "0"});
+        assertEquals(12, options.getCount());
+        assertEquals(7, options.getRows());
+        assertEquals(9, options.getCols());
+        assertEquals(Paths.get("data"), options.getOut());
+        assertEquals(-5, options.getSeed());
+        assertEquals(3, options.getGenerators());
+        assertEquals(2, options.getSolvers());
+        assertEquals(4, options.getEncoders());
+        assertEquals(8, options.getQueueCapacity());
+        assertEquals(9, options.getLevel());
+        assertEquals(0, options.getReportSeconds());
+
+        // The Deflater default level and options given twice
+        options = BatchOptions.parse(new String[]{"--level", "-1", "--rows", "3", "--rows", "4"});
+        assertEquals(-1, options.getLevel());
+        assertEquals(4, options.getRows());
+    }
+
+    @Test
+    void testInvalidArguments() {
+        String[][] invalid = {
+                {"--colour", "red"},
+                {"--rows"},
+                {"--rows", "many"},
+                {"--rows", "0"},
+                {"--count", "0"},
+                {"--report", "-1"},
+                {"--level", "10"},
+                {"--level", "-2"},
+                {"--queue", "3000000000"},
+                {"--rows", "65536", "--cols", "65536"}
+        };
+        for (String[] args : invalid) {
+            assertThrows(IllegalArgumentException.class, () -> BatchOptions.parse(args), String.join(" ", args));
+        }
+    }
+}
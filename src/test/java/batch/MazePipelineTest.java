@@ -0,0 +1,111 @@
+package batch;
+
+import generation.Cell;
+import generation.MazeGraph;
+import generation.MazeReader;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This is a test for the MazePipeline class.
+ * Tests that a small batch writes every maze once, that each record reads back as a
+ * perfect maze with its solution, and that the thread counts do not change the dataset.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+class MazePipelineTest {
+    private static final int COUNT = 40;
+    private static final int ROWS = 7;
+    private static final int COLS = 9;
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void testRecordsRoundTrip() throws IOException, InterruptedException {
+        Map<Long, byte[]> first = run(folder.resolve("first"), 2, 1, 2);
+        assertEquals(COUNT, first.size());
+        for (long id = 0; id < COUNT; id++) {
+            assertTrue(first.containsKey(id), "missing maze " + id);
+        }
+
+        // The same seed gives the same mazes however the work is split
+        Map<Long, byte[]> second = run(folder.resolve("second"), 1, 2, 3);
+        for (long id = 0; id < COUNT; id++) {
+            assertArrayEquals(first.get(id), second.get(id), "maze " + id);
+        }
+    }
+
+    // Runs a batch and checks every record, returning the maze bytes of each id
+    private static Map<Long, byte[]> run(Path out, int generators, int solvers, int encoders)
+            throws IOException, InterruptedException {
+        BatchOptions options = BatchOptions.parse(new String[]{
+                "--count", String.valueOf(COUNT), "--rows", String.valueOf(ROWS), "--cols", String.valueOf(COLS),
+                "--out", out.toString(), "--seed", "17", "--generators", String.valueOf(generators),
+                "--solvers", String.valueOf(solvers), "--encoders", String.valueOf(encoders),
+                "--queue", "2", "--report", "0"});
+        new MazePipeline(options).run();
+
+        Map<Long, byte[]> mazes = new HashMap<>();
+        for (int index = 0; index < encoders; index++) {
+            byte[] file = Files.readAllBytes(out.resolve("mazes-" + index + ".bin"));
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(file));
+            while (true) {
+                long id;
+                try {
+                    id = in.readLong();
+                }
+                catch (EOFException e) {
+                    break;
+                }
+                byte[] maze = new byte[in.readInt()];
+                in.readFully(maze);
+                int pathLength = in.readInt();
+                byte[] moves = new byte[(pathLength - 1 + 3) / 4];
+                in.readFully(moves);
+
+                assertNull(mazes.put(id, maze), "maze " + id + " written twice");
+                checkRecord(maze, pathLength, moves);
+            }
+        }
+        return mazes;
+    }
+
+    private static void checkRecord(byte[] maze, int pathLength, byte[] moves) throws IOException {
+        MazeGraph graph;
+        try (MazeReader reader = new MazeReader(new ByteArrayInputStream(maze))) {
+            assertEquals(ROWS, reader.getRows());
+            assertEquals(COLS, reader.getCols());
+            graph = reader.read();
+        }
+        assertEquals(ROWS * COLS - 1, graph.getEdgeCount());
+        assertEquals(graph.solve(new int[ROWS * COLS]), pathLength);
+
+        // Following the moves through open doors leads from the entrance to the exit
+        int cell = 0;
+        int[] steps = new int[4];
+        steps[Cell.NORTH] = -COLS;
+        steps[Cell.EAST] = 1;
+        steps[Cell.SOUTH] = COLS;
+        steps[Cell.WEST] = -1;
+        for (int step = 0; step < pathLength - 1; step++) {
+            int direction = moves[step / 4] >> (step % 4 * 2) & 3;
+            assertTrue((graph.doorMask(cell) & (1 << direction)) != 0,
+                    "no door " + direction + " out of " + cell);
+            cell += steps[direction];
+        }
+        assertEquals(ROWS * COLS - 1, cell);
+    }
+}
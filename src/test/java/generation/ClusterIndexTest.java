@@ -0,0 +1,85 @@
+package generation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This is a test for the ClusterIndex class.
+ * Tests that routes through the index are as short as a full Breadth-First Search and
+ * stay correct after walls change.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+class ClusterIndexTest {
+    private static final int ROWS = 50;
+    private static final int COLS = 71;
+    private static final int[] CLUSTER_SIZES = {1, 5, 16, 100};
+
+    @Test
+    void testRoutes() {
+        for (int clusterSize : CLUSTER_SIZES) {
+            for (double fraction : new double[]{0, 0.5}) {
+                MazeGraph graph = MazeGenerator.generate(ROWS, COLS, new MazeGraph(1), new Random(3));
+                MazeBraider.braid(graph, ROWS, COLS, fraction, new Random(4));
+                ClusterIndex index = new ClusterIndex(graph, ROWS, COLS, clusterSize);
+                assertRoutes(graph, index, new Random(clusterSize));
+            }
+        }
+    }
+
+    @Test
+    void testUpdate() {
+        MazeGraph graph = MazeGenerator.generate(ROWS, COLS, new MazeGraph(1), new Random(8));
+        ClusterIndex index = new ClusterIndex(graph, ROWS, COLS, 7);
+        Random random = new Random(9);
+        for (int added = 0; added < 40; ) {
+            int cell = random.nextInt(ROWS * COLS);
+            int neighbor = random.nextBoolean() ? cell + 1 : cell + COLS;
+            if ((neighbor == cell + 1 && neighbor % COLS == 0) || neighbor >= ROWS * COLS
+                    || (graph.doorMask(cell) & (neighbor == cell + 1 ? 1 << Cell.EAST : 1 << Cell.SOUTH)) != 0) {
+                continue;
+            }
+            graph.addEdge(cell, neighbor);
+            index.update(cell);
+            index.update(neighbor);
+            added++;
+        }
+        assertRoutes(graph, index, new Random(10));
+    }
+
+    @Test
+    void testUnreachable() {
+        MazeGraph graph = new MazeGraph(ROWS * COLS);
+        for (int col = 0; col < COLS - 1; col++) {
+            graph.addEdge(col, col + 1);
+        }
+        ClusterIndex index = new ClusterIndex(graph, ROWS, COLS, 4);
+        int[] path = new int[ROWS * COLS];
+        assertEquals(COLS, index.route(0, COLS - 1, path));
+        assertEquals(0, index.route(0, COLS, path));
+        assertThrows(IllegalArgumentException.class, () -> new ClusterIndex(graph, ROWS, COLS, 0));
+    }
+
+    private static void assertRoutes(MazeGraph graph, ClusterIndex index, Random random) {
+        int cells = ROWS * COLS;
+        int[] expected = new int[cells];
+        int[] path = new int[cells];
+        for (int query = 0; query < 60; query++) {
+            int source = random.nextInt(cells);
+            int target = query % 10 == 0 ? source : random.nextInt(cells);
+            int length = index.route(source, target, path);
+            assertEquals(ShortestPathSolver.bfs(graph, source, target, expected), length, index.toString());
+            assertEquals(source, path[0]);
+            assertEquals(target, path[length - 1]);
+            for (int i = 1; i < length; i++) {
+                int step = path[i] - path[i - 1];
+                int door = step == 1 ? Cell.EAST : step == -1 ? Cell.WEST : step == COLS ? Cell.SOUTH : Cell.NORTH;
+                assertTrue((graph.doorMask(path[i - 1]) & 1 << door) != 0, "no passage at step " + i);
+            }
+        }
+    }
+}
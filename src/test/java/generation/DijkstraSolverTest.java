@@ -0,0 +1,135 @@
+package generation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This is a test for the DijkstraSolver and RadixHeap classes.
+ * Tests that weighted paths are the cheapest against a simple reference search.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+class DijkstraSolverTest {
+    private static final int ROWS = 30;
+    private static final int COLS = 40;
+    private static final int MAX_COST = 20;
+
+    @Test
+    void testRadixHeapOrder() {
+        Random random = new Random(3);
+        RadixHeap heap = new RadixHeap();
+        long[] keys = new long[5000];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextInt(1 << 20);
+            heap.push(keys[i], i);
+        }
+        Arrays.sort(keys);
+        for (long key : keys) {
+            heap.pop();
+            assertEquals(key, heap.lastKey());
+        }
+        assertTrue(heap.isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> heap.push(keys[keys.length - 1] - 1, 0));
+    }
+
+    @Test
+    void testUnitCosts() {
+        MazeGraph graph = MazeGenerator.generate(ROWS, COLS, new MazeGraph(1), new Random(1));
+        WeightedPath path = DijkstraSolver.solve(graph, null);
+
+        int[] expected = new int[ROWS * COLS];
+        int length = graph.solve(expected);
+        assertArrayEquals(Arrays.copyOf(expected, length), path.getCells());
+        assertEquals(length - 1, path.getCost());
+    }
+
+    @Test
+    void testWeightedCosts() {
+        // A maze with loops, so there are many paths to choose from
+        MazeGraph graph = MazeGenerator.generate(ROWS, COLS, new MazeGraph(1), new Random(2));
+        Random random = new Random(5);
+        for (int cell = 0; cell < ROWS * COLS; cell++) {
+            if (cell % COLS < COLS - 1 && random.nextInt(4) == 0) {
+                graph.addEdge(cell, cell + 1, random.nextInt(MAX_COST));
+            }
+        }
+        for (int edge = 0; edge < graph.getEdgeCount(); edge += 3) {
+            graph.setEdgeCost(edge, random.nextInt(MAX_COST));
+        }
+        int[] cellCosts = random.ints(ROWS * COLS, 0, MAX_COST).toArray();
+
+        for (int source = 0; source < ROWS * COLS; source += 97) {
+            long[] expected = referenceCosts(graph, cellCosts, source);
+            for (int target = 0; target < ROWS * COLS; target += 13) {
+                WeightedPath path = DijkstraSolver.solve(graph, cellCosts, source, target);
+                assertEquals(expected[target], path.getCost());
+                assertEquals(source, path.getCells()[0]);
+                assertEquals(target, path.getCells()[path.getLength() - 1]);
+                assertEquals(path.getCost(), walk(graph, cellCosts, path.getCells()));
+            }
+        }
+    }
+
+    @Test
+    void testUnreachable() {
+        MazeGraph graph = new MazeGraph(4);
+        graph.addEdge(0, 1, 5);
+        WeightedPath path = DijkstraSolver.solve(graph, null);
+        assertTrue(path.isEmpty());
+        assertEquals(5, DijkstraSolver.solve(graph, null, 1, 0).getCost());
+    }
+
+    // Bellman-Ford style relaxation until nothing changes
+    private static long[] referenceCosts(MazeGraph graph, int[] cellCosts, int source) {
+        long[] costs = new long[graph.getVertexCount()];
+        Arrays.fill(costs, Long.MAX_VALUE);
+        costs[source] = 0;
+        boolean changed = true;
+        while (changed) {
+            changed = false;
+            for (int edge = 0; edge < graph.getEdgeCount(); edge++) {
+                int from = graph.getEdgeFrom(edge);
+                int to = graph.getEdgeTo(edge);
+                changed |= relax(costs, from, to, graph.getEdgeCost(edge) + cellCosts[to]);
+                changed |= relax(costs, to, from, graph.getEdgeCost(edge) + cellCosts[from]);
+            }
+        }
+        return costs;
+    }
+
+    private static boolean relax(long[] costs, int from, int to, long cost) {
+        if (costs[from] != Long.MAX_VALUE && costs[from] + cost < costs[to]) {
+            costs[to] = costs[from] + cost;
+            return true;
+        }
+        return false;
+    }
+
+    // Adds up the cost of a path, failing if it uses an edge the maze does not have
+    private static long walk(MazeGraph graph, int[] cellCosts, int[] cells) {
+        long cost = 0;
+        for (int i = 1; i < cells.length; i++) {
+            int edge = findEdge(graph, cells[i - 1], cells[i]);
+            assertTrue(edge >= 0, "No edge between " + cells[i - 1] + " and " + cells[i]);
+            cost += graph.getEdgeCost(edge) + cellCosts[cells[i]];
+        }
+        return cost;
+    }
+
+    private static int findEdge(MazeGraph graph, int first, int second) {
+        int found = -1;
+        for (int edge = 0; edge < graph.getEdgeCount(); edge++) {
+            int from = graph.getEdgeFrom(edge);
+            int to = graph.getEdgeTo(edge);
+            if (from == first && to == second || from == second && to == first) {
+                found = edge;
+            }
+        }
+        return found;
+    }
+}
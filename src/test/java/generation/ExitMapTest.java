@@ -0,0 +1,90 @@
+package generation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This is a test for the ExitMap class.
+ * Tests that one search from every exit finds the same nearest exits and distances as
+ * a separate search from each exit, and that the routes lead there.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+class ExitMapTest {
+    private static final int ROWS = 23;
+    private static final int COLS = 31;
+
+    @Test
+    void testMatchesSingleSearches() {
+        int[] exits = {0, COLS - 1, ROWS * COLS - 1, ROWS / 2 * COLS + COLS / 2};
+        for (CellLayout.Order order : CellLayout.Order.values()) {
+            MazeGraph graph = new MazeGraph(CellLayout.of(order, ROWS, COLS));
+            MazeGenerator.generate(ROWS, COLS, graph, new Random(5));
+            MazeBraider.braid(graph, ROWS, COLS, 0.4, new Random(6));
+            ExitMap map = graph.nearestExits(exits);
+
+            int[] path = new int[ROWS * COLS];
+            for (int cell = 0; cell < ROWS * COLS; cell++) {
+                int nearest = Integer.MAX_VALUE;
+                for (int exit : exits) {
+                    nearest = Math.min(nearest, ShortestPathSolver.bfs(graph, cell, exit, path) - 1);
+                }
+                assertEquals(nearest, map.getDistance(cell), order + " cell " + cell);
+                assertEquals(exits[map.getExitIndex(cell)], map.getNearestExit(cell));
+                assertEquals(nearest + 1, ShortestPathSolver.bfs(graph, cell, map.getNearestExit(cell), path));
+            }
+
+            int[][] routes = map.routes(1, ROWS * COLS / 3, ROWS * COLS - 2);
+            for (int[] route : routes) {
+                assertEquals(map.getDistance(route[0]) + 1, route.length);
+                assertEquals(map.getNearestExit(route[0]), route[route.length - 1]);
+                for (int i = 1; i < route.length; i++) {
+                    assertEquals(2, ShortestPathSolver.bfs(graph, route[i - 1], route[i], path),
+                            "no passage from " + route[i - 1] + " to " + route[i]);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testTiesAndDuplicates() {
+        // A single corridor along the top row
+        MazeGraph graph = new MazeGraph(COLS);
+        for (int col = 0; col < COLS - 1; col++) {
+            graph.addEdge(col, col + 1);
+        }
+        ExitMap map = graph.nearestExits(COLS - 1, 0, 0, COLS - 1);
+        assertEquals(COLS - 1, map.getNearestExit(COLS / 2), "tie goes to the exit listed first");
+        assertEquals(0, map.getExitIndex(COLS - 1));
+        assertEquals(1, map.getExitIndex(0));
+        assertEquals(COLS / 2, map.getDistance(COLS / 2));
+
+        int[] path = new int[COLS];
+        assertEquals(1, map.route(0, path));
+        assertEquals(0, path[0]);
+        assertEquals(3, map.route(2, path));
+        assertArrayEquals(new int[]{2, 1, 0}, Arrays.copyOf(path, 3));
+    }
+
+    @Test
+    void testUnreachable() {
+        MazeGraph graph = new MazeGraph(ROWS * COLS);
+        graph.addEdge(0, 1);
+        ExitMap map = graph.nearestExits(0);
+        assertEquals(1, map.getDistance(1));
+        assertEquals(-1, map.getDistance(2));
+        assertEquals(-1, map.getNearestExit(2));
+        assertEquals(-1, map.getExitIndex(2));
+        assertEquals(0, map.route(2, new int[1]));
+        assertEquals(0, map.routes(2)[0].length);
+
+        assertThrows(IllegalArgumentException.class, () -> graph.nearestExits());
+        assertThrows(IndexOutOfBoundsException.class, () -> graph.nearestExits(ROWS * COLS));
+        assertThrows(IndexOutOfBoundsException.class, () -> map.getDistance(-1));
+    }
+}
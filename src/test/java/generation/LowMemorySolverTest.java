@@ -0,0 +1,168 @@
+package generation;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ReadOnlyBufferException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This is a test for the MappedMaze and LowMemorySolver classes.
+ * Tests that mapped mazes keep their walls and that the wall follower and Tremaux's
+ * algorithm find their way out of perfect and braided mazes.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+class LowMemorySolverTest {
+    private static final int ROWS = 63;
+    private static final int COLS = 41;
+
+    @TempDir
+    Path folder;
+
+    @Test
+    void testMappedCopy() throws IOException {
+        OffHeapMaze maze = new OffHeapMaze(ROWS, COLS);
+        maze.generate(new Random(1));
+        Path file = folder.resolve("maze.bin");
+        try (MappedMaze copy = MappedMaze.copyOf(maze, file)) {
+            copy.force();
+        }
+        assertEquals(MappedMaze.requiredBytes(ROWS, COLS), Files.size(file));
+        try (MappedMaze mapped = MappedMaze.open(file)) {
+            assertEquals(ROWS, mapped.getRows());
+            assertEquals(COLS, mapped.getCols());
+            for (long cell = 0; cell < maze.getCellCount(); cell++) {
+                assertEquals(maze.doorMask(cell), mapped.doorMask(cell));
+            }
+            assertThrows(ReadOnlyBufferException.class, () -> mapped.openWall(COLS, Cell.NORTH));
+        }
+
+        Files.write(file, new byte[16]);
+        assertThrows(IOException.class, () -> MappedMaze.open(file));
+    }
+
+    @Test
+    void testFormatsKeptApart() throws IOException {
+        OffHeapMaze maze = new OffHeapMaze(ROWS, COLS);
+        maze.generate(new Random(5));
+
+        // A MazeWriter stream is not a mapped maze
+        Path stream = folder.resolve("stream.bin");
+        try (MazeWriter writer = new MazeWriter(Files.newOutputStream(stream), ROWS, COLS)) {
+            maze.write(writer);
+        }
+        assertThrows(IOException.class, () -> MappedMaze.open(stream));
+
+        // And a mapped maze is not a MazeWriter stream
+        Path mapped = folder.resolve("mapped.bin");
+        MappedMaze.copyOf(maze, mapped).close();
+        try (InputStream in = Files.newInputStream(mapped)) {
+            assertThrows(IOException.class, () -> new MazeReader(in));
+        }
+    }
+
+    @Test
+    void testPerfectMaze() throws IOException {
+        OffHeapMaze maze = new OffHeapMaze(ROWS, COLS);
+        maze.generate(new Random(2));
+        List<Long> expected = new ArrayList<>();
+        maze.solve(cell -> expected.add(0, cell));
+
+        try (MappedMaze mapped = MappedMaze.copyOf(maze, folder.resolve("perfect.bin"))) {
+            for (WallGrid grid : new WallGrid[]{maze, mapped}) {
+                List<Long> walk = new ArrayList<>();
+                long steps = LowMemorySolver.followWall(grid, walk::add);
+                assertEquals(walk.size() - 1, steps);
+                assertConnected(grid, walk);
+                // Cancelling each dead end walked in and out of leaves the path
+                assertEquals(expected, withoutDetours(walk));
+
+                List<Long> path = new ArrayList<>();
+                assertEquals(expected.size(), LowMemorySolver.tremaux(grid, path::add));
+                assertEquals(expected, path);
+            }
+        }
+    }
+
+    @Test
+    void testBraidedMaze() throws IOException {
+        MazeGraph graph = MazeGenerator.generate(ROWS, COLS, new MazeGraph(1), new Random(3));
+        MazeBraider.braid(graph, ROWS, COLS, 0.6, new Random(4));
+        int[] shortest = new int[ROWS * COLS];
+        int shortestLength = ShortestPathSolver.bfs(graph, 0, ROWS * COLS - 1, shortest);
+
+        try (MappedMaze mapped = MappedMaze.create(folder.resolve("braided.bin"), ROWS, COLS)) {
+            for (int edge = 0; edge < graph.getEdgeCount(); edge++) {
+                int from = graph.getEdgeFrom(edge);
+                int to = graph.getEdgeTo(edge);
+                int step = to - from;
+                mapped.openWall(from, step == 1 ? Cell.EAST : step == -1 ? Cell.WEST
+                        : step == COLS ? Cell.SOUTH : Cell.NORTH);
+            }
+
+            List<Long> walk = new ArrayList<>();
+            assertTrue(LowMemorySolver.followWall(mapped, walk::add) > 0);
+            assertConnected(mapped, walk);
+            assertEquals(ROWS * COLS - 1, (long) walk.get(walk.size() - 1));
+
+            List<Long> path = new ArrayList<>();
+            long length = LowMemorySolver.tremaux(mapped, folder.resolve("marks.bin"), path::add);
+            assertEquals(length, path.size());
+            assertTrue(length >= shortestLength);
+            assertConnected(mapped, path);
+            assertEquals(path.size(), path.stream().distinct().count(), "path crosses itself");
+        }
+    }
+
+    @Test
+    void testUnreachableExit() throws IOException {
+        try (MappedMaze mapped = MappedMaze.create(folder.resolve("closed.bin"), ROWS, COLS)) {
+            assertEquals(-1, LowMemorySolver.followWall(mapped, cell -> {}));
+            assertEquals(0, LowMemorySolver.tremaux(mapped, cell -> {}));
+
+            // A corridor that never reaches the last row
+            for (int col = 0; col < COLS - 1; col++) {
+                mapped.openWall(col, Cell.EAST);
+            }
+            mapped.openWall(COLS / 2, Cell.SOUTH);
+            assertEquals(-1, LowMemorySolver.followWall(mapped, cell -> {}));
+            assertEquals(0, LowMemorySolver.tremaux(mapped, cell -> {}));
+        }
+    }
+
+    private static void assertConnected(WallGrid grid, List<Long> cells) {
+        assertEquals(0, (long) cells.get(0));
+        for (int i = 1; i < cells.size(); i++) {
+            long from = cells.get(i - 1);
+            long to = cells.get(i);
+            boolean joined = false;
+            for (int direction = Cell.NORTH; direction <= Cell.WEST; direction++) {
+                joined |= grid.neighbor(from, direction) == to && grid.isOpen(from, direction);
+            }
+            assertTrue(joined, "no passage from " + from + " to " + to);
+        }
+    }
+
+    private static List<Long> withoutDetours(List<Long> walk) {
+        List<Long> path = new ArrayList<>();
+        for (long cell : walk) {
+            if (path.size() > 1 && path.get(path.size() - 2) == cell) {
+                path.remove(path.size() - 1);
+            }
+            else {
+                path.add(cell);
+            }
+        }
+        return path;
+    }
+}
@@ -0,0 +1,95 @@
+package generation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This is a test for the MazeAnalytics class.
+ * Tests the statistics of small mazes drawn by hand and checks the parallel counts on
+ * large mazes against counting every cell one at a time.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+class MazeAnalyticsTest {
+    private static final int ROWS = 300;
+    private static final int COLS = 310;
+
+    @Test
+    void testKnownMaze() {
+        // 0 - 1 - 2    dead ends 0, 2, 5 and 6, junctions 1 and 4,
+        //     |        corridors through 3 (one cell) and 7 - 8 (two cells),
+        // 3 - 4   5    solution 0, 1, 4, 7, 8
+        // |   |   |
+        // 6   7 - 8
+        MazeGraph graph = new MazeGraph(9);
+        graph.addEdge(0, 1);
+        graph.addEdge(1, 2);
+        graph.addEdge(1, 4);
+        graph.addEdge(4, 3);
+        graph.addEdge(3, 6);
+        graph.addEdge(4, 7);
+        graph.addEdge(7, 8);
+        graph.addEdge(8, 5);
+
+        MazeAnalytics analytics = MazeAnalytics.analyze(graph, 3, 3);
+        assertEquals(4, analytics.getDeadEnds());
+        assertEquals(2, analytics.getJunctions());
+        assertArrayEquals(new long[]{0, 1, 1}, analytics.getCorridorLengths());
+        assertEquals(5, analytics.getSolutionLength());
+        assertEquals(5.0 / 9, analytics.getSolutionFraction(), 1e-12);
+    }
+
+    @Test
+    void testIsolatedCells() {
+        // A corridor along the top row, nothing below it
+        MazeGraph graph = new MazeGraph(6);
+        graph.addEdge(0, 1);
+        graph.addEdge(1, 2);
+
+        MazeAnalytics analytics = MazeAnalytics.analyze(graph, 2, 3);
+        assertEquals(2, analytics.getDeadEnds());
+        assertEquals(0, analytics.getJunctions());
+        assertArrayEquals(new long[]{0, 1}, analytics.getCorridorLengths());
+        assertEquals(0, analytics.getSolutionLength());
+        assertEquals(0.0, analytics.getSolutionFraction());
+
+        assertThrows(IllegalArgumentException.class, () -> MazeAnalytics.analyze(graph, 3, 3));
+    }
+
+    @Test
+    void testMatchesCellByCell() {
+        // Big enough to be split between several tasks
+        for (CellLayout.Order order : new CellLayout.Order[]{CellLayout.Order.ROW_MAJOR, CellLayout.Order.HILBERT}) {
+            MazeGraph graph = new MazeGraph(CellLayout.of(order, ROWS, COLS));
+            MazeGenerator.generate(ROWS, COLS, graph, new Random(8));
+            MazeAnalytics analytics = MazeAnalytics.analyze(graph, ROWS, COLS);
+
+            long deadEnds = 0;
+            long junctions = 0;
+            long corridorCells = 0;
+            for (int cell = 0; cell < ROWS * COLS; cell++) {
+                int doors = Integer.bitCount(graph.doorMask(cell));
+                deadEnds += doors == 1 ? 1 : 0;
+                junctions += doors >= 3 ? 1 : 0;
+                corridorCells += doors == 2 ? 1 : 0;
+            }
+            assertEquals(deadEnds, analytics.getDeadEnds(), order.toString());
+            assertEquals(junctions, analytics.getJunctions(), order.toString());
+
+            // In a perfect maze every cell with two doors is on exactly one corridor
+            long[] corridors = analytics.getCorridorLengths();
+            long walked = 0;
+            for (int length = 1; length < corridors.length; length++) {
+                walked += length * corridors[length];
+            }
+            assertEquals(corridorCells, walked, order.toString());
+
+            int[] path = new int[ROWS * COLS];
+            assertEquals(ShortestPathSolver.bfs(graph, 0, ROWS * COLS - 1, path), analytics.getSolutionLength());
+        }
+    }
+}
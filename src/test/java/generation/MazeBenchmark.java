@@ -0,0 +1,144 @@
+package generation;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * Rough throughput numbers for the maze data structures at large sizes.
+ * This is not a unit test, run it by hand with:
+ *
+ * java -cp target/classes:target/test-classes generation.MazeBenchmark [size] [repeats]
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+public class MazeBenchmark {
+    private static final int DEFAULT_SIZE = 4000;
+    private static final int DEFAULT_REPEATS = 5;
+    private static final long SEED = 42;
+
+    public static void main(String[] args) {
+        int size = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_SIZE;
+        int repeats = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_REPEATS;
+        System.out.println("Maze size " + size + "x" + size + ", best of " + repeats);
+
+        layouts(size, repeats);
+        weighted(size, repeats);
+        braiding(size, repeats);
+        clusters(size, repeats);
+        concurrent(size);
+    }
+
+    // Compares the solvers and union-find on each cell layout
+    private static void layouts(int size, int repeats) {
+        System.out.printf("%-10s %10s %10s %10s %12s%n", "layout", "build ms", "bfs ms", "dfs ms", "unions ms");
+        MazeGraph graph = new MazeGraph(1);
+        for (CellLayout.Order order : CellLayout.Order.values()) {
+            long start = System.nanoTime();
+            CellLayout layout = CellLayout.of(order, size, size);
+            double buildMillis = (System.nanoTime() - start) / 1e6;
+
+            // Same maze every time so only the layout changes
+            graph.reset(layout);
+            MazeGenerator.generate(size, size, graph, new Random(SEED));
+            graph.compact();
+
+            double bfs = best(repeats, graph::bfs);
+            double dfs = best(repeats, graph::dfs);
+            double unions = best(repeats, () -> unionEdges(graph, layout));
+            System.out.printf("%-10s %10.1f %10.1f %10.1f %12.1f%n", order, buildMillis, bfs, dfs, unions);
+        }
+    }
+
+    // Compares unweighted BFS with Dijkstra over random terrain costs on the same maze
+    private static void weighted(int size, int repeats) {
+        MazeGraph graph = MazeGenerator.generate(size, size, new MazeGraph(1), new Random(SEED));
+        int[] cellCosts = new Random(SEED).ints(size * size, 1, 10).toArray();
+        int[] path = new int[size * size];
+
+        double bfs = best(repeats, () -> graph.solve(path));
+        double dijkstra = best(repeats, () -> DijkstraSolver.solve(graph, cellCosts));
+        System.out.printf("%-10s %10s %10.1f %10s %12s%n", "bfs", "", bfs, "", "");
+        System.out.printf("%-10s %10s %10.1f %10s %12s%n", "dijkstra", "", dijkstra, "", "");
+    }
+
+    // Shows how loops change the work each solver does, from a perfect maze to no dead ends
+    private static void braiding(int size, int repeats) {
+        System.out.printf("%-10s %10s %10s %10s %12s%n", "braid", "edges", "bfs ms", "a* ms", "dfs ms");
+        MazeGraph graph = new MazeGraph(1);
+        int[] path = new int[size * size];
+        int exit = size * size - 1;
+        for (double fraction : new double[] {0, 0.1, 0.25, 0.5, 1}) {
+            MazeGenerator.generate(size, size, graph, new Random(SEED));
+            MazeBraider.braid(graph, size, size, fraction, new Random(SEED));
+
+            double bfs = best(repeats, () -> ShortestPathSolver.bfs(graph, 0, exit, path));
+            double aStar = best(repeats, () -> ShortestPathSolver.aStar(graph, size, 0, exit, path));
+            double dfs = best(repeats, graph::dfs);
+            System.out.printf("%-10.2f %10d %10.1f %10.1f %12.1f%n", fraction, graph.getEdgeCount(), bfs, aStar, dfs);
+        }
+    }
+
+    // Joins the two cells of every edge, with cells numbered in the layout order
+    private static void unionEdges(MazeGraph graph, CellLayout layout) {
+        DisjointSets sets = new DisjointSets(layout.getCellCount());
+        for (int edge = 0; edge < graph.getEdgeCount(); edge++) {
+            sets.union(layout.toInternal(graph.getEdgeFrom(edge)), layout.toInternal(graph.getEdgeTo(edge)));
+        }
+    }
+
+    // Builds a cluster index on a braided maze and compares its queries with A*
+    private static void clusters(int size, int repeats) {
+        System.out.printf("%-10s %10s %12s %12s %12s%n", "cluster", "index ms", "entrances", "route ms", "a* ms");
+        MazeGraph graph = MazeGenerator.generate(size, size, new MazeGraph(1), new Random(SEED));
+        MazeBraider.braid(graph, size, size, 0.5, new Random(SEED));
+        int[] path = new int[size * size];
+        int[] queries = new Random(SEED).ints(20, 0, size * size).toArray();
+        for (int clusterSize : new int[] {8, 16, 32, 64}) {
+            ClusterIndex[] index = new ClusterIndex[1];
+            double build = best(1, () -> index[0] = new ClusterIndex(graph, size, size, clusterSize));
+            double route = best(repeats, () -> {
+                for (int i = 1; i < queries.length; i++) {
+                    index[0].route(queries[i - 1], queries[i], path);
+                }
+            });
+            double aStar = best(repeats, () -> {
+                for (int i = 1; i < queries.length; i++) {
+                    ShortestPathSolver.aStar(graph, size, queries[i - 1], queries[i], path);
+                }
+            });
+            System.out.printf("%-10d %10.1f %12d %12.1f %12.1f%n", clusterSize, build,
+                    index[0].getEntranceCount(), route, aStar);
+        }
+    }
+
+    // Solves random pairs of cells on a snapshot of a perfect maze from every core at once
+    private static void concurrent(int size) {
+        System.out.printf("%-10s %10s %12s%n", "threads", "solves", "solves/s");
+        MazeGraph graph = MazeGenerator.generate(size, size, new MazeGraph(1), new Random(SEED));
+        MazeSnapshot snapshot = graph.snapshot();
+        int solves = 10000;
+        for (int threads = 1; threads <= Runtime.getRuntime().availableProcessors(); threads *= 2) {
+            int workers = threads;
+            double millis = best(1, () -> IntStream.range(0, workers).parallel().forEach(worker -> {
+                Random random = new Random(SEED + worker);
+                int[] path = new int[size * size];
+                for (int i = 0; i < solves; i++) {
+                    snapshot.solve(random.nextInt(size * size), random.nextInt(size * size), path);
+                }
+            }));
+            System.out.printf("%-10d %10d %12.0f%n", threads, threads * solves, threads * solves / (millis / 1000));
+        }
+    }
+
+    // Fastest of several runs, in milliseconds
+    private static double best(int repeats, Runnable task) {
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < repeats; i++) {
+            long start = System.nanoTime();
+            task.run();
+            best = Math.min(best, System.nanoTime() - start);
+        }
+        return best / 1e6;
+    }
+}
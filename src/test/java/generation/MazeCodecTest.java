@@ -0,0 +1,142 @@
+package generation;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+import java.util.zip.Deflater;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This is a test for the MazeWriter and MazeReader classes.
+ * Tests that mazes survive a round trip through the wire format.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+class MazeCodecTest {
+    private static final int ROWS = 37;
+    private static final int COLS = 53;
+
+    @Test
+    void testRoundTrip() throws IOException {
+        MazeGraph graph = MazeGenerator.generate(ROWS, COLS, new MazeGraph(1), new Random(42));
+        MazeGraph copy = new MazeReader(new ByteArrayInputStream(encode(graph))).read();
+
+        assertEquals(graph.getEdgeCount(), copy.getEdgeCount());
+        for (int cell = 0; cell < ROWS * COLS; cell++) {
+            assertEquals(graph.doorMask(cell), copy.doorMask(cell));
+        }
+    }
+
+    @Test
+    void testSingleColumnAndRow() throws IOException {
+        // A step of one cell is north or south in a single column, east or west in a single row
+        for (int[] size : new int[][]{{6, 1}, {1, 6}}) {
+            MazeGraph graph = MazeGenerator.generate(size[0], size[1], new MazeGraph(1), new Random(3));
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (MazeWriter writer = new MazeWriter(bytes, size[0], size[1])) {
+                writer.write(graph);
+            }
+            MazeGraph copy = new MazeReader(new ByteArrayInputStream(bytes.toByteArray())).read();
+
+            String name = size[0] + "x" + size[1];
+            assertEquals(5, copy.getEdgeCount(), name);
+            for (int cell = 0; cell < 6; cell++) {
+                assertEquals(graph.doorMask(cell, size[1]), copy.doorMask(cell, size[1]), name);
+            }
+        }
+        MazeGraph column = MazeGenerator.generate(6, 1, new MazeGraph(1), new Random(4));
+        assertEquals(1 << Cell.NORTH | 1 << Cell.SOUTH, column.doorMask(2, 1));
+    }
+
+    @Test
+    void testSharedDeflater() throws IOException {
+        // A Deflater reset between mazes gives the same bytes as a new one for each, and is left open
+        Deflater deflater = new Deflater();
+        try {
+            for (int seed = 0; seed < 3; seed++) {
+                MazeGraph graph = MazeGenerator.generate(ROWS, COLS, new MazeGraph(1), new Random(seed));
+                ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                deflater.reset();
+                try (MazeWriter writer = new MazeWriter(bytes, ROWS, COLS, deflater)) {
+                    writer.write(graph);
+                }
+                assertArrayEquals(encode(graph), bytes.toByteArray(), "seed " + seed);
+            }
+        }
+        finally {
+            deflater.end();
+        }
+        assertThrows(NullPointerException.class,
+                () -> new MazeWriter(new ByteArrayOutputStream(), ROWS, COLS, (Deflater) null));
+    }
+
+    @Test
+    void testReadRow() throws IOException {
+        MazeGraph graph = MazeGenerator.generate(ROWS, COLS, new MazeGraph(1), new Random(7));
+        MazeReader reader = new MazeReader(new ByteArrayInputStream(encode(graph)));
+        assertEquals(ROWS, reader.getRows());
+        assertEquals(COLS, reader.getCols());
+
+        int[] doors = new int[COLS];
+        for (int row = 0; row < ROWS; row++) {
+            assertEquals(row, reader.readRow(doors));
+            for (int col = 0; col < COLS; col++) {
+                int expected = graph.doorMask(row * COLS + col);
+                if (row == 0 && col == 0) {
+                    expected |= 1 << Cell.NORTH; // Entrance
+                }
+                assertEquals(expected, doors[col]);
+            }
+        }
+        assertEquals(-1, reader.readRow(doors));
+    }
+
+    @Test
+    void testCompact() throws IOException {
+        MazeGraph graph = MazeGenerator.generate(ROWS, COLS, new MazeGraph(1), new Random(1));
+
+        // Never larger than the header plus 2 bits per cell
+        assertTrue(encode(graph).length < 13 + ROWS * COLS / 4 + 16);
+    }
+
+    @Test
+    void testRejectsBadInput() throws IOException {
+        assertThrows(IOException.class, () -> new MazeReader(new ByteArrayInputStream(new byte[16])));
+
+        // Truncated cell data
+        MazeGraph graph = MazeGenerator.generate(ROWS, COLS);
+        byte[] encoded = encode(graph);
+        byte[] truncated = new byte[encoded.length / 2];
+        System.arraycopy(encoded, 0, truncated, 0, truncated.length);
+        assertThrows(IOException.class, () -> new MazeReader(new ByteArrayInputStream(truncated)).read());
+
+        // Too many cells for a graph, whether or not one is passed in
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(header);
+        out.writeInt(MazeWriter.MAGIC);
+        out.writeByte(MazeWriter.VERSION);
+        out.writeInt(1 << 16);
+        out.writeInt(1 << 16);
+        byte[] huge = header.toByteArray();
+        IOException tooLarge = assertThrows(IOException.class,
+                () -> new MazeReader(new ByteArrayInputStream(huge)).read());
+        assertTrue(tooLarge.getMessage().contains("too large"), tooLarge.getMessage());
+        tooLarge = assertThrows(IOException.class,
+                () -> new MazeReader(new ByteArrayInputStream(huge)).read(new MazeGraph(1)));
+        assertTrue(tooLarge.getMessage().contains("too large"), tooLarge.getMessage());
+    }
+
+    private static byte[] encode(MazeGraph graph) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (MazeWriter writer = new MazeWriter(bytes, ROWS, COLS)) {
+            writer.write(graph);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -0,0 +1,102 @@
+package generation;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This is a test for the MazePool class.
+ * Tests that ready mazes have the requested size and stay within the memory budget.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+class MazePoolTest {
+    private static final int SIZE = 30;
+    private static final long TIMEOUT_MILLIS = 10_000;
+
+    @Test
+    void testTake() throws InterruptedException {
+        try (MazePool pool = new MazePool(3, MazePool.DEFAULT_MEMORY_BUDGET)) {
+            pool.setSize(SIZE, SIZE);
+            awaitReady(pool, 3);
+
+            MazeGraph graph = pool.take(SIZE, SIZE);
+            assertEquals(SIZE * SIZE, graph.getVertexCount());
+            assertEquals(SIZE * SIZE - 1, graph.getEdgeCount());
+            assertNotSame(graph, pool.take(SIZE, SIZE));
+            awaitReady(pool, 3);
+        }
+    }
+
+    @Test
+    void testSizeChange() throws InterruptedException {
+        try (MazePool pool = new MazePool(2, MazePool.DEFAULT_MEMORY_BUDGET)) {
+            pool.setSize(SIZE, SIZE);
+            awaitReady(pool, 2);
+
+            // Ready mazes of the old size are never handed out
+            pool.setSize(SIZE, SIZE + 1);
+            MazeGraph graph = pool.take(SIZE, SIZE + 1);
+            assertEquals(SIZE * (SIZE + 1), graph.getVertexCount());
+            assertEquals(SIZE * (SIZE + 1) - 1, graph.getEdgeCount());
+        }
+    }
+
+    @Test
+    void testMemoryBudget() throws InterruptedException {
+        // Room for two mazes, however many are asked for
+        try (MazePool pool = new MazePool(10, 2 * MazePool.estimateBytes(SIZE, SIZE))) {
+            pool.setSize(SIZE, SIZE);
+            awaitReady(pool, 2);
+            Thread.sleep(100);
+            assertEquals(2, pool.getReadyCount());
+        }
+
+        // No room at all still generates on demand
+        try (MazePool pool = new MazePool(10, 0)) {
+            MazeGraph graph = pool.take(SIZE, SIZE);
+            assertEquals(SIZE * SIZE - 1, graph.getEdgeCount());
+            assertEquals(0, pool.getReadyCount());
+        }
+    }
+
+    @Test
+    void testBudgetCountsEveryGraph() throws InterruptedException {
+        try (MazePool pool = new MazePool(10, 2 * MazePool.estimateBytes(SIZE, SIZE))) {
+            pool.setSize(SIZE, SIZE);
+            awaitReady(pool, 2);
+
+            // A full pool has no room for a spare graph as well
+            MazeGraph taken = pool.take(SIZE, SIZE);
+            awaitReady(pool, 2);
+            pool.recycle(taken);
+            assertEquals(2, pool.heldMazes());
+
+            // Mazes being generated count too, whenever graphs are handed back
+            for (int i = 0; i < 50; i++) {
+                pool.recycle(pool.take(SIZE, SIZE));
+                assertTrue(pool.heldMazes() <= 2, pool.toString());
+            }
+        }
+    }
+
+    @Test
+    void testRefillsAfterEveryTake() throws InterruptedException {
+        // Taking as fast as possible must never leave the pool stuck short of mazes
+        try (MazePool pool = new MazePool(2, MazePool.DEFAULT_MEMORY_BUDGET)) {
+            for (int i = 0; i < 200; i++) {
+                pool.take(SIZE, SIZE);
+            }
+            awaitReady(pool, 2);
+        }
+    }
+
+    private static void awaitReady(MazePool pool, int count) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT_MILLIS;
+        while (pool.getReadyCount() < count) {
+            assertTrue(System.currentTimeMillis() < deadline, "Pool never filled: " + pool);
+            Thread.sleep(5);
+        }
+    }
+}
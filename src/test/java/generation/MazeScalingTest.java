@@ -0,0 +1,170 @@
+package generation;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * This is a scaling test for the MazeGenerator and MazeGraph classes.
+ * Tests that mazes of every shape are perfect and solvable, and that large mazes
+ * stay within time and allocation budgets.
+ *
+ * The budgets can be changed on slow machines with -Dmaze.budget.millis=... and
+ * -Dmaze.budget.bytes=...
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+class MazeScalingTest {
+    private static final int[][] SIZES = {
+            {1, 1}, {1, 2}, {2, 1}, {1, 60}, {60, 1}, {2, 2}, {17, 31}, {26, 27}, // 26x27 is right around the recursive DFS limit
+            {100, 100}, {300, 700}, {1000, 1000}
+    };
+    private static final int BUDGET_SIZE = 2000;
+    private static final long TIME_BUDGET_MILLIS = Long.getLong("maze.budget.millis", 8_000); // About 2x a cold single core
+    private static final long ALLOCATION_BUDGET_BYTES = Long.getLong("maze.budget.bytes", 1 << 20);
+
+    @Test
+    void testSizeSweep() {
+        MazeGraph graph = new MazeGraph(1);
+        Random random = new Random(2024);
+        for (int[] size : SIZES) {
+            MazeGenerator.generate(size[0], size[1], graph, random);
+            assertPerfect(graph, size[0] + "x" + size[1]);
+        }
+    }
+
+    @Test
+    void testLayoutSweep() {
+        for (CellLayout.Order order : CellLayout.Order.values()) {
+            MazeGraph graph = new MazeGraph(CellLayout.of(order, 123, 77));
+            MazeGenerator.generate(123, 77, graph, new Random(5));
+            assertPerfect(graph, order.toString());
+            graph.compact();
+            assertPerfect(graph, order + " compacted");
+        }
+    }
+
+    @Test
+    void testTopologySweep() {
+        Topology[] topologies = {
+                Topology.toroidal(40, 50), Topology.hexagonal(40, 50), Topology.layered(5, 20, 30)
+        };
+        MazeGraph graph = new MazeGraph(1);
+        for (Topology topology : topologies) {
+            MazeGenerator.generate(topology, graph, new Random(3));
+            assertEquals(topology.getCellCount() - 1, graph.getEdgeCount(), topology.toString());
+            assertEquals(topology.getCellCount(), reachableCells(graph), topology.toString());
+        }
+    }
+
+    @Test
+    void testDeepDisjointSets() {
+        // Joining ever larger sets to a single element is the worst order for the tree height
+        int size = 1 << 21;
+        DisjointSets sets = new DisjointSets(size);
+        for (int i = 1; i < size; i++) {
+            assertTrue(sets.union(i, 0));
+        }
+        for (int i = 0; i < size; i++) {
+            assertEquals(sets.find(0), sets.find(i));
+        }
+    }
+
+    @Test
+    void testOffHeapSweep() throws IOException {
+        for (int[] size : SIZES) {
+            OffHeapMaze maze = new OffHeapMaze(size[0], size[1]);
+            maze.generate(new Random(11));
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            try (MazeWriter writer = new MazeWriter(bytes, size[0], size[1])) {
+                maze.write(writer);
+            }
+            MazeGraph graph = new MazeReader(new ByteArrayInputStream(bytes.toByteArray())).read();
+            String name = "off-heap " + size[0] + "x" + size[1];
+            assertPerfect(graph, name);
+
+            long[] last = {-1};
+            long length = maze.solve(cell -> last[0] = cell);
+            assertEquals(graph.dfs().size(), length, name);
+            assertEquals(0, last[0], name);
+        }
+    }
+
+    @Test
+    void testTimeBudget() {
+        long start = System.nanoTime();
+        MazeGraph graph = MazeGenerator.generate(BUDGET_SIZE, BUDGET_SIZE, new MazeGraph(1), new Random(9));
+        int cells = BUDGET_SIZE * BUDGET_SIZE;
+        assertEquals(cells - 1, graph.getEdgeCount());
+        assertEquals(graph.dfs().size() - 1, graph.bfs().size());
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(millis <= TIME_BUDGET_MILLIS, BUDGET_SIZE + "x" + BUDGET_SIZE + " took " + millis
+                + "ms, the budget is " + TIME_BUDGET_MILLIS + "ms");
+    }
+
+    @Test
+    void testAllocationBudget() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled());
+
+        // Warm up the graph and the scratch buffers, after which regenerating should be free
+        MazeGraph graph = MazeGenerator.generate(BUDGET_SIZE, BUDGET_SIZE, new MazeGraph(1), new Random(1));
+        Random random = new Random(2);
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        MazeGenerator.generate(BUDGET_SIZE, BUDGET_SIZE, graph, random);
+        long allocated = threads.getThreadAllocatedBytes(thread) - before;
+
+        assertTrue(allocated <= ALLOCATION_BUDGET_BYTES, "Regenerating " + BUDGET_SIZE + "x" + BUDGET_SIZE
+                + " allocated " + allocated + " bytes, the budget is " + ALLOCATION_BUDGET_BYTES);
+    }
+
+    // Checks a maze is a spanning tree and that both searches find the same path through it
+    private static void assertPerfect(MazeGraph graph, String name) {
+        int cells = graph.getVertexCount();
+        assertEquals(cells - 1, graph.getEdgeCount(), name);
+        assertEquals(cells, reachableCells(graph), name);
+
+        // A tree has exactly one path, so the searches must agree cell for cell
+        List<Integer> dfs = graph.dfs();
+        Map<Integer, Integer> bfs = graph.bfs();
+        assertEquals(cells - 1, (int) dfs.get(0), name);
+        assertEquals(0, (int) dfs.get(dfs.size() - 1), name);
+        assertEquals(dfs.size() - 1, bfs.size(), name);
+        for (int i = 0; i < dfs.size() - 1; i++) {
+            assertEquals(dfs.get(i + 1), bfs.get(dfs.get(i)), name);
+        }
+    }
+
+    // Flood fill from cell 0 over the internal adjacency lists
+    private static int reachableCells(MazeGraph graph) {
+        int cells = graph.getVertexCount();
+        boolean[] seen = new boolean[cells];
+        int[] queue = new int[cells];
+        int tail = 0;
+        queue[tail++] = graph.internal(0);
+        seen[queue[0]] = true;
+        for (int head = 0; head < tail; head++) {
+            for (int slot = graph.firstSlot(queue[head]); slot != -1; slot = graph.nextSlot(slot)) {
+                int neighbor = graph.slotTarget(slot);
+                if (!seen[neighbor]) {
+                    seen[neighbor] = true;
+                    queue[tail++] = neighbor;
+                }
+            }
+        }
+        return tail;
+    }
+}
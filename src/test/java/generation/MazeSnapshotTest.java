@@ -0,0 +1,130 @@
+package generation;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This is a test for the MazeSnapshot and SnapshotSolver classes.
+ * Tests that a snapshot keeps the passages it was taken with and that many threads
+ * solving it at once all get shortest paths.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+class MazeSnapshotTest {
+    private static final int ROWS = 120;
+    private static final int COLS = 90;
+    private static final int THREADS = 8;
+    private static final int QUERIES = 400;
+    private static final int DISCARDED = 50;
+
+    @Test
+    void testCopiesGraph() {
+        MazeGraph graph = new MazeGraph(CellLayout.of(CellLayout.Order.HILBERT, ROWS, COLS));
+        MazeGenerator.generate(ROWS, COLS, graph, new Random(1));
+        MazeSnapshot snapshot = graph.snapshot();
+        assertEquals(ROWS * COLS, snapshot.getVertexCount());
+        assertEquals(ROWS * COLS - 1, snapshot.getEdgeCount());
+        assertTrue(snapshot.isTree());
+
+        // Paths up and down the tree match a search
+        int[] path = new int[ROWS * COLS];
+        int[] expected = new int[ROWS * COLS];
+        for (int source = 0; source < ROWS * COLS; source += 997) {
+            for (int target = 0; target < ROWS * COLS; target += 1213) {
+                int length = ShortestPathSolver.bfs(graph, source, target, expected);
+                assertEquals(length, snapshot.solve(source, target, path));
+                assertArrayEquals(Arrays.copyOf(expected, length), Arrays.copyOf(path, length));
+            }
+        }
+
+        // Later changes to the graph do not reach the snapshot
+        int exit = ROWS * COLS - 1;
+        int length = ShortestPathSolver.bfs(graph, 0, exit, expected);
+        graph.reset(ROWS * COLS);
+        assertEquals(length, snapshot.solve(0, exit, path));
+        assertEquals(0, graph.snapshot().solve(0, exit, path));
+    }
+
+    @Test
+    void testConcurrentSolves() throws Exception {
+        MazeGraph graph = MazeGenerator.generate(ROWS, COLS, new MazeGraph(1), new Random(2));
+        MazeBraider.braid(graph, ROWS, COLS, 0.4, new Random(3));
+        MazeSnapshot snapshot = graph.snapshot();
+        assertFalse(snapshot.isTree());
+        int cells = ROWS * COLS;
+        int[] sources = new Random(4).ints(QUERIES, 0, cells).toArray();
+        int[] targets = new Random(5).ints(QUERIES, 0, cells).toArray();
+        int[] expected = new int[QUERIES];
+        int[] path = new int[cells];
+        for (int i = 0; i < QUERIES; i++) {
+            expected[i] = ShortestPathSolver.bfs(graph, sources[i], targets[i], path);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<int[]>> results = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                results.add(pool.submit(() -> {
+                    int[] threadPath = new int[cells];
+                    int[] lengths = new int[QUERIES];
+                    for (int i = 0; i < QUERIES; i++) {
+                        lengths[i] = snapshot.solve(sources[i], targets[i], threadPath);
+                        assertEquals(sources[i], threadPath[0]);
+                        assertEquals(targets[i], threadPath[lengths[i] - 1]);
+                    }
+                    return lengths;
+                }));
+            }
+            for (Future<int[]> result : results) {
+                assertArrayEquals(expected, result.get());
+            }
+        }
+        finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testUnreachable() {
+        MazeGraph graph = new MazeGraph(ROWS * COLS);
+        graph.addEdge(0, 1);
+        SnapshotSolver solver = graph.snapshot().newSolver();
+        int[] path = new int[ROWS * COLS];
+        assertEquals(0, solver.solve(0, 2, path));
+        assertEquals(2, solver.solve(1, 0, path));
+        assertEquals(1, path[0]);
+        assertEquals(1, solver.solve(5, 5, path));
+        assertThrows(IndexOutOfBoundsException.class, () -> solver.solve(-1, 0, path));
+    }
+
+    @Test
+    void testDiscardedSnapshotsCollected() throws InterruptedException {
+        // Loops make every solve search, so the thread's solver fills its buffers
+        MazeGraph graph = MazeGenerator.generate(ROWS, COLS, new MazeGraph(1), new Random(6));
+        MazeBraider.braid(graph, ROWS, COLS, 0.4, new Random(7));
+        int[] path = new int[ROWS * COLS];
+        List<WeakReference<MazeSnapshot>> discarded = new ArrayList<>();
+        for (int i = 0; i < DISCARDED; i++) {
+            MazeSnapshot snapshot = graph.snapshot();
+            assertTrue(snapshot.solve(0, ROWS * COLS - 1, path) > 0);
+            discarded.add(new WeakReference<>(snapshot));
+        }
+
+        for (int attempt = 0; attempt < 20 && discarded.stream().anyMatch(ref -> ref.get() != null); attempt++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        assertTrue(discarded.stream().allMatch(ref -> ref.get() == null), "solved snapshots were kept alive");
+    }
+}
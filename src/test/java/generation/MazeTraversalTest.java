@@ -0,0 +1,108 @@
+package generation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This is a test for the MazeTraversal class.
+ * Tests that the lazy searches visit cells in the same order as dfs() and bfs(), stop
+ * at their target and report the path they took.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+class MazeTraversalTest {
+    private static final int ROWS = 37;
+    private static final int COLS = 53;
+
+    @Test
+    void testMatchesSearches() {
+        for (CellLayout.Order order : CellLayout.Order.values()) {
+            MazeGraph graph = new MazeGraph(CellLayout.of(order, ROWS, COLS));
+            MazeGenerator.generate(ROWS, COLS, graph, new Random(12));
+            int exit = ROWS * COLS - 1;
+
+            IntStream.Builder dfsVisits = IntStream.builder();
+            int dfsLength = graph.dfs(dfsVisits).size();
+            MazeTraversal dfs = graph.dfsIterator(0, exit);
+            assertArrayEquals(dfsVisits.build().toArray(), drain(dfs), order.toString());
+            assertTrue(dfs.isTargetFound());
+            assertEquals(dfsLength, dfs.path().length);
+
+            // bfs() stops as soon as it sees the exit, the iterator once it expands it
+            IntStream.Builder bfsVisits = IntStream.builder();
+            int bfsLength = graph.bfs(bfsVisits).size() + 1;
+            int[] expected = bfsVisits.build().toArray();
+            int[] visits = drain(graph.bfsIterator(0, exit));
+            assertArrayEquals(expected, Arrays.copyOf(visits, expected.length), order.toString());
+            assertEquals(exit, visits[visits.length - 1]);
+            MazeTraversal bfs = graph.bfsIterator(0, exit);
+            drain(bfs);
+            assertEquals(bfsLength, bfs.path().length);
+        }
+    }
+
+    @Test
+    void testWholeComponent() {
+        MazeGraph graph = MazeGenerator.generate(ROWS, COLS, new MazeGraph(1), new Random(2));
+        MazeBraider.braid(graph, ROWS, COLS, 0.5, new Random(3));
+        int start = ROWS * COLS / 2;
+        for (MazeTraversal traversal : new MazeTraversal[]{graph.dfsIterator(start, -1), graph.bfsIterator(start, -1)}) {
+            int[] visits = drain(traversal);
+            assertEquals(start, visits[0]);
+            assertArrayEquals(IntStream.range(0, ROWS * COLS).toArray(), IntStream.of(visits).sorted().toArray());
+            assertFalse(traversal.isTargetFound());
+            assertThrows(NoSuchElementException.class, traversal::nextInt);
+        }
+    }
+
+    @Test
+    void testEarlyStop() {
+        MazeGraph graph = MazeGenerator.generate(ROWS, COLS, new MazeGraph(1), new Random(7));
+        MazeBraider.braid(graph, ROWS, COLS, 1, new Random(8));
+        int[] shortest = new int[ROWS * COLS];
+
+        // Nearest cell on the last row, found without searching the rest of the maze
+        MazeTraversal bfs = graph.bfsIterator(0, -1);
+        int steps = 0;
+        int cell = -1;
+        while (bfs.hasNext()) {
+            cell = bfs.nextInt();
+            steps++;
+            if (cell / COLS == ROWS - 1) {
+                break;
+            }
+        }
+        assertTrue(steps < ROWS * COLS);
+        int[] path = bfs.path();
+        assertEquals(cell, path[path.length - 1]);
+        assertEquals(ShortestPathSolver.bfs(graph, 0, cell, shortest), path.length);
+
+        // A depth-first path stays connected even after backtracking
+        MazeTraversal dfs = graph.dfsIterator(0, -1);
+        for (int i = 0; i < 500; i++) {
+            cell = dfs.nextInt();
+        }
+        dfs.hasNext();
+        path = dfs.path();
+        assertEquals(0, path[0]);
+        assertEquals(cell, path[path.length - 1]);
+        for (int i = 1; i < path.length; i++) {
+            assertTrue(Math.abs(path[i] - path[i - 1]) == 1 || Math.abs(path[i] - path[i - 1]) == COLS);
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> graph.bfsIterator(ROWS * COLS, -1));
+    }
+
+    private static int[] drain(MazeTraversal traversal) {
+        IntStream.Builder visits = IntStream.builder();
+        traversal.forEachRemaining((IntConsumer) visits);
+        return visits.build().toArray();
+    }
+}
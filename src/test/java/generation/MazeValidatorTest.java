@@ -0,0 +1,137 @@
+package generation;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This is a test for the MazeValidator class.
+ * Tests that generated mazes pass and that each kind of damage is reported.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+class MazeValidatorTest {
+    private static final int ROWS = 300;
+    private static final int COLS = 400; // Large enough to be split across tasks
+
+    @Test
+    void testValidMazes() throws IOException {
+        MazeGraph graph = MazeGenerator.generate(ROWS, COLS, new MazeGraph(1), new Random(1));
+        MazeValidator result = MazeValidator.validate(graph, ROWS, COLS);
+        assertTrue(result.isValid(), result.toString());
+        assertEquals(1, result.getRegions());
+        assertEquals(ROWS * COLS - 1, result.getPassages());
+
+        // The entrance is open in the wire format
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (MazeWriter writer = new MazeWriter(bytes, ROWS, COLS)) {
+            writer.write(graph);
+        }
+        MazeReader reader = new MazeReader(new ByteArrayInputStream(bytes.toByteArray()));
+        assertTrue(MazeValidator.validate(reader, 1).isValid());
+    }
+
+    @Test
+    void testSingleColumnAndRow() {
+        for (int[] size : new int[][]{{40, 1}, {1, 40}}) {
+            MazeGraph graph = MazeGenerator.generate(size[0], size[1], new MazeGraph(1), new Random(6));
+            MazeValidator result = MazeValidator.validate(graph, size[0], size[1]);
+            assertTrue(result.isValid(), result.toString());
+        }
+    }
+
+    @Test
+    void testTooLarge() throws IOException {
+        // Just a header, with more cells than an int can count
+        ByteArrayOutputStream header = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(header);
+        out.writeInt(MazeWriter.MAGIC);
+        out.writeByte(MazeWriter.VERSION);
+        out.writeInt(1 << 16);
+        out.writeInt(1 << 16);
+        MazeReader reader = new MazeReader(new ByteArrayInputStream(header.toByteArray()));
+        IOException tooLarge = assertThrows(IOException.class, () -> MazeValidator.validate(reader, 1));
+        assertTrue(tooLarge.getMessage().contains("too large"), tooLarge.getMessage());
+    }
+
+    @Test
+    void testOneSidedDoor() {
+        int[] doors = doors(2);
+        int cell = 5 * COLS + 7;
+        doors[cell] ^= 1 << Cell.SOUTH;
+        MazeValidator result = MazeValidator.validate(doors, ROWS, COLS, 10);
+
+        assertFalse(result.isValid());
+        MazeValidator.Violation first = result.getViolations().get(0);
+        assertEquals(MazeValidator.Violation.Kind.ONE_SIDED_DOOR, first.getKind());
+        assertTrue(first.getCell() == cell || first.getCell() == cell + COLS);
+    }
+
+    @Test
+    void testOpenBorder() {
+        int[] doors = doors(3);
+        doors[COLS * 10] |= 1 << Cell.WEST;
+        doors[COLS - 1] |= 1 << Cell.EAST;
+        doors[0] |= 1 << Cell.NORTH; // Entrance is allowed
+        MazeValidator result = MazeValidator.validate(doors, ROWS, COLS, 10);
+
+        assertEquals(2, result.getViolationCount());
+        assertEquals(COLS - 1, result.getViolations().get(0).getCell());
+        assertEquals(Cell.EAST, result.getViolations().get(0).getDirection());
+        assertEquals(COLS * 10, result.getViolations().get(1).getCell());
+    }
+
+    @Test
+    void testLoopsAndRegions() {
+        MazeGraph graph = MazeGenerator.generate(ROWS, COLS, new MazeGraph(1), new Random(4));
+        MazeBraider.braid(graph, ROWS, COLS, 0.5, new Random(5));
+        MazeValidator braided = MazeValidator.validate(graph, ROWS, COLS);
+        assertEquals(1, braided.getRegions());
+        assertEquals(MazeValidator.Violation.Kind.PASSAGE_COUNT, braided.getViolations().get(0).getKind());
+
+        // Closing a door on both sides splits the maze in two
+        int[] doors = doors(6);
+        int cell = findDoor(doors, Cell.EAST);
+        doors[cell] &= ~(1 << Cell.EAST);
+        doors[cell + 1] &= ~(1 << Cell.WEST);
+        MazeValidator split = MazeValidator.validate(doors, ROWS, COLS, 10);
+        assertEquals(2, split.getRegions());
+        assertEquals(2, split.getViolationCount()); // Passage count and regions
+    }
+
+    @Test
+    void testViolationLimit() {
+        int[] doors = new int[ROWS * COLS];
+        for (int cell = 0; cell < COLS; cell++) {
+            doors[cell] |= 1 << Cell.NORTH;
+        }
+        MazeValidator result = MazeValidator.validate(doors, ROWS, COLS, 5);
+        assertEquals(5, result.getViolations().size());
+        assertEquals(1, result.getViolations().get(0).getCell()); // In row-major order
+        assertTrue(result.getViolationCount() > COLS);
+    }
+
+    private static int[] doors(long seed) {
+        MazeGraph graph = MazeGenerator.generate(ROWS, COLS, new MazeGraph(1), new Random(seed));
+        int[] doors = new int[ROWS * COLS];
+        for (int cell = 0; cell < doors.length; cell++) {
+            doors[cell] = graph.doorMask(cell);
+        }
+        return doors;
+    }
+
+    private static int findDoor(int[] doors, int direction) {
+        for (int cell = doors.length / 2; ; cell++) {
+            if ((doors[cell] & 1 << direction) != 0) {
+                return cell;
+            }
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package generation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * This is a test for the OffHeapDisjointSets class.
+ * Tests find(), union() and sameSet() against DisjointSets, the heights kept in the
+ * roots, and sets large enough to span two native memory segments.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+class OffHeapDisjointSetsTest {
+    private static final int SET_SIZE = 5000;
+    private static final long SEGMENT_ELEMENTS = (1L << 30) / Integer.BYTES; // First element of the second segment
+
+    @Test
+    void testMatchesDisjointSets() {
+        OffHeapDisjointSets offHeap = new OffHeapDisjointSets(SET_SIZE);
+        DisjointSets onHeap = new DisjointSets(SET_SIZE);
+        for (int i = 0; i < SET_SIZE; i++) {
+            assertEquals(i, offHeap.find(i));
+        }
+
+        Random random = new Random(11);
+        for (int i = 0; i < 2 * SET_SIZE; i++) {
+            int first = random.nextInt(SET_SIZE);
+            int second = random.nextInt(SET_SIZE);
+            assertEquals(onHeap.union(first, second), offHeap.union(first, second));
+            int other = random.nextInt(SET_SIZE);
+            assertEquals(onHeap.sameSet(first, other), offHeap.sameSet(first, other));
+        }
+        // Roots may differ, but the sets they stand for may not
+        for (int i = 1; i < SET_SIZE; i++) {
+            assertEquals(onHeap.sameSet(i - 1, i), offHeap.sameSet(i - 1, i));
+            assertTrue(offHeap.sameSet(i, offHeap.find(i)));
+        }
+
+        offHeap.reset();
+        for (int i = 0; i < SET_SIZE; i++) {
+            assertEquals(i, offHeap.find(i));
+        }
+    }
+
+    @Test
+    void testUnionByHeight() {
+        // Joining equal heights doubles the set size per level, so 2^k elements reach height k + 1
+        int levels = 12;
+        OffHeapDisjointSets sets = new OffHeapDisjointSets(1 << levels);
+        for (int width = 1; width < 1 << levels; width *= 2) {
+            for (int start = 0; start < 1 << levels; start += 2 * width) {
+                assertTrue(sets.union(start, start + width));
+            }
+        }
+        long root = sets.find(0);
+        for (int i = 0; i < 1 << levels; i++) {
+            assertEquals(root, sets.find(i));
+        }
+        assertFalse(sets.union(0, (1 << levels) - 1));
+
+        // The taller tree stays the root when joined with a single element
+        OffHeapDisjointSets joined = new OffHeapDisjointSets(4);
+        joined.union(0, 1);
+        joined.union(2, 0);
+        joined.union(3, 1);
+        assertEquals(joined.find(0), joined.find(2));
+        assertEquals(joined.find(0), joined.find(3));
+    }
+
+    @Test
+    void testBounds() {
+        OffHeapDisjointSets sets = new OffHeapDisjointSets(SET_SIZE);
+        assertThrows(IndexOutOfBoundsException.class, () -> sets.find(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> sets.find(SET_SIZE));
+        assertThrows(IndexOutOfBoundsException.class, () -> sets.union(0, SET_SIZE));
+        assertThrows(IllegalArgumentException.class, () -> new OffHeapDisjointSets(-1));
+        assertThrows(IllegalArgumentException.class,
+                () -> new OffHeapDisjointSets(OffHeapDisjointSets.MAX_ELEMENTS + 1));
+        assertEquals(0, new OffHeapDisjointSets(0).size());
+    }
+
+    @Test
+    void testAcrossSegments() {
+        // A little over one 2^30 byte segment, skipped where that much native memory is not allowed
+        long size = SEGMENT_ELEMENTS + 1024;
+        OffHeapDisjointSets sets;
+        try {
+            sets = new OffHeapDisjointSets(size);
+        }
+        catch (OutOfMemoryError e) {
+            assumeTrue(false, "not enough native memory for " + size + " sets");
+            return;
+        }
+        assertEquals(size, sets.size());
+        long last = SEGMENT_ELEMENTS - 1;
+        long first = SEGMENT_ELEMENTS;
+        assertEquals(last, sets.find(last));
+        assertEquals(first, sets.find(first));
+
+        // A chain back and forth over the boundary, and out to both ends
+        for (long i = last - 8; i < first + 8; i++) {
+            assertTrue(sets.union(i, i + 1));
+        }
+        assertTrue(sets.union(0, last));
+        assertTrue(sets.union(size - 1, first));
+        assertTrue(sets.sameSet(0, size - 1));
+        assertFalse(sets.union(first + 3, last - 3));
+        assertFalse(sets.sameSet(0, first + 100));
+        assertEquals(first + 100, sets.find(first + 100));
+
+        long root = sets.find(0);
+        for (long i = last - 8; i <= first + 8; i++) {
+            assertEquals(root, sets.find(i));
+        }
+    }
+}
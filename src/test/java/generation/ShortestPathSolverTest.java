@@ -0,0 +1,94 @@
+package generation;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * This is a test for the MazeBraider and ShortestPathSolver classes.
+ * Tests that braiding removes dead ends and that both solvers find shortest paths
+ * through the loops it makes.
+ *
+ * @author Patrick Lindsay
+ * @version 1.0
+ */
+class ShortestPathSolverTest {
+    private static final int ROWS = 45;
+    private static final int COLS = 61;
+    private static final double[] FRACTIONS = {0, 0.3, 0.7, 1};
+
+    @Test
+    void testBraid() {
+        for (double fraction : FRACTIONS) {
+            MazeGraph graph = MazeGenerator.generate(ROWS, COLS, new MazeGraph(1), new Random(8));
+            int before = deadEnds(graph);
+            int added = MazeBraider.braid(graph, ROWS, COLS, fraction, new Random(9));
+
+            assertEquals(ROWS * COLS - 1 + added, graph.getEdgeCount());
+            int after = deadEnds(graph);
+            assertTrue(after <= Math.round(before * (1 - fraction)) + 1, fraction + ": " + before + " -> " + after);
+            assertTrue(after >= Math.round(before * (1 - fraction)) - 1, fraction + ": " + before + " -> " + after);
+        }
+        assertThrows(IllegalArgumentException.class,
+                () -> MazeBraider.braid(new MazeGraph(ROWS * COLS), ROWS, COLS, 1.5, new Random()));
+    }
+
+    @Test
+    void testShortestPaths() {
+        int cells = ROWS * COLS;
+        int[] bfsPath = new int[cells];
+        int[] aStarPath = new int[cells];
+        for (double fraction : FRACTIONS) {
+            MazeGraph graph = MazeGenerator.generate(ROWS, COLS, new MazeGraph(1), new Random(4));
+            MazeBraider.braid(graph, ROWS, COLS, fraction, new Random(6));
+
+            for (int source = 0; source < cells; source += 331) {
+                for (int target = 0; target < cells; target += 127) {
+                    // Dijkstra with every edge costing 1 counts the edges on a shortest path
+                    long expected = DijkstraSolver.solve(graph, null, source, target).getCost() + 1;
+                    int bfs = ShortestPathSolver.bfs(graph, source, target, bfsPath);
+                    int aStar = ShortestPathSolver.aStar(graph, COLS, source, target, aStarPath);
+                    assertEquals(expected, bfs);
+                    assertEquals(expected, aStar);
+                    assertValidPath(graph, bfsPath, bfs, source, target);
+                    assertValidPath(graph, aStarPath, aStar, source, target);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testLayouts() {
+        int[] path = new int[ROWS * COLS];
+        MazeGraph graph = new MazeGraph(CellLayout.of(CellLayout.Order.HILBERT, ROWS, COLS));
+        MazeGenerator.generate(ROWS, COLS, graph, new Random(2));
+        MazeBraider.braid(graph, ROWS, COLS, 0.5, new Random(3));
+        int expected = ShortestPathSolver.bfs(graph, 0, ROWS * COLS - 1, path);
+        assertEquals(expected, ShortestPathSolver.aStar(graph, COLS, 0, ROWS * COLS - 1, path));
+        assertEquals(expected, graph.bfs().size() + 1);
+    }
+
+    private static int deadEnds(MazeGraph graph) {
+        int deadEnds = 0;
+        for (int cell = 0; cell < graph.getVertexCount(); cell++) {
+            if (Integer.bitCount(graph.doorMask(cell)) == 1) {
+                deadEnds++;
+            }
+        }
+        return deadEnds;
+    }
+
+    private static void assertValidPath(MazeGraph graph, int[] path, int length, int source, int target) {
+        assertEquals(source, path[0]);
+        assertEquals(target, path[length - 1]);
+        for (int i = 1; i < length; i++) {
+            int step = Math.abs(path[i] - path[i - 1]);
+            assertTrue(step == 1 || step == COLS);
+            int direction = path[i] - path[i - 1] == -COLS ? Cell.NORTH : path[i] - path[i - 1] == 1 ? Cell.EAST
+                    : path[i] - path[i - 1] == COLS ? Cell.SOUTH : Cell.WEST;
+            assertTrue((graph.doorMask(path[i - 1]) & 1 << direction) != 0, "Path goes through a wall");
+        }
+    }
+}